@@ -0,0 +1,37 @@
+package site.zido.coffee.autoconfigure.extra.id;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import site.zido.coffee.core.utils.IdWorker;
+import site.zido.coffee.extra.id.RedisWorkerIdLease;
+
+import java.util.concurrent.TimeUnit;
+
+@ConditionalOnBean(RedisConnectionFactory.class)
+@ConditionalOnProperty(prefix = "coffee.id-worker.lease", name = "enabled", havingValue = "true")
+@AutoConfigureAfter(RedisAutoConfiguration.class)
+@EnableConfigurationProperties(IdWorkerProperties.class)
+@Configuration
+public class IdWorkerLeaseConfiguration {
+    @Bean
+    @ConditionalOnMissingBean(RedisWorkerIdLease.class)
+    public RedisWorkerIdLease workerIdLease(RedisConnectionFactory connectionFactory, IdWorkerProperties properties) {
+        RedisWorkerIdLease lease = new RedisWorkerIdLease(connectionFactory);
+        lease.setPrefix(properties.getPrefix());
+        lease.setLeaseTime(properties.getLeaseTime(), TimeUnit.MILLISECONDS);
+        return lease;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(IdWorker.class)
+    public IdWorker idWorker(RedisWorkerIdLease lease) {
+        return lease.getIdWorker();
+    }
+}
@@ -0,0 +1,40 @@
+package site.zido.coffee.autoconfigure.extra.id;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "coffee.id-worker.lease")
+public class IdWorkerProperties {
+    /**
+     * 是否通过redis租约分配机器id
+     */
+    private boolean enabled = false;
+    private String prefix = "coffee:id-worker:";
+    /**
+     * 租约时间(毫秒)
+     */
+    private long leaseTime = 30000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    public void setLeaseTime(long leaseTime) {
+        this.leaseTime = leaseTime;
+    }
+}
@@ -10,6 +10,13 @@ import org.springframework.util.StringUtils;
 import site.zido.coffee.extra.limiter.EnableLimiter;
 import site.zido.coffee.extra.limiter.FrequencyLimiter;
 import site.zido.coffee.extra.limiter.MemoryFrequencyLimiter;
+import site.zido.coffee.extra.limiter.MemoryGcraLimiter;
+import site.zido.coffee.extra.limiter.MemorySlidingWindowCounterLimiter;
+import site.zido.coffee.extra.limiter.MemorySlidingWindowLogLimiter;
+import site.zido.coffee.extra.limiter.MemoryTokenBucketLimiter;
+import site.zido.coffee.extra.limiter.RateLimiter;
+
+import java.nio.file.Paths;
 
 @Configuration
 @EnableConfigurationProperties(LimiterProperties.class)
@@ -20,9 +27,59 @@ public class LimiterAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(name = "limiterTemplate", value = FrequencyLimiter.class)
     public FrequencyLimiter limiter(@Autowired LimiterProperties properties) {
+        long maximumSize = getMaximumSize(properties);
+        MemoryFrequencyLimiter limiter = StringUtils.hasLength(properties.getPrefix())
+                ? new MemoryFrequencyLimiter(properties.getPrefix(), maximumSize, properties.getStorageMode())
+                : new MemoryFrequencyLimiter(maximumSize, properties.getStorageMode());
+        if (StringUtils.hasLength(properties.getSnapshotPath())) {
+            limiter.setSnapshotPath(Paths.get(properties.getSnapshotPath()));
+        }
+        return limiter;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "tokenBucketLimiter")
+    public RateLimiter tokenBucketLimiter(@Autowired LimiterProperties properties) {
+        MemoryTokenBucketLimiter limiter = new MemoryTokenBucketLimiter(getMaximumSize(properties));
+        if (StringUtils.hasLength(properties.getPrefix())) {
+            limiter.setPrefix(properties.getPrefix());
+        }
+        return limiter;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "slidingWindowCounterLimiter")
+    public RateLimiter slidingWindowCounterLimiter(@Autowired LimiterProperties properties) {
+        MemorySlidingWindowCounterLimiter limiter = new MemorySlidingWindowCounterLimiter(getMaximumSize(properties));
+        if (StringUtils.hasLength(properties.getPrefix())) {
+            limiter.setPrefix(properties.getPrefix());
+        }
+        return limiter;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "slidingWindowLogLimiter")
+    public RateLimiter slidingWindowLogLimiter(@Autowired LimiterProperties properties) {
+        MemorySlidingWindowLogLimiter limiter = new MemorySlidingWindowLogLimiter(getMaximumSize(properties));
         if (StringUtils.hasLength(properties.getPrefix())) {
-            return new MemoryFrequencyLimiter(properties.getPrefix());
+            limiter.setPrefix(properties.getPrefix());
         }
-        return new MemoryFrequencyLimiter();
+        return limiter;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "gcraLimiter")
+    public RateLimiter gcraLimiter(@Autowired LimiterProperties properties) {
+        MemoryGcraLimiter limiter = new MemoryGcraLimiter(getMaximumSize(properties));
+        if (StringUtils.hasLength(properties.getPrefix())) {
+            limiter.setPrefix(properties.getPrefix());
+        }
+        return limiter;
+    }
+
+    private static long getMaximumSize(LimiterProperties properties) {
+        return properties.getMaximumSize() == null
+                ? MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE
+                : properties.getMaximumSize();
     }
 }
@@ -1,6 +1,7 @@
 package site.zido.coffee.autoconfigure.extra.limiter;
 
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,6 +25,7 @@ public class LimiterExceptionAdvice {
     public ResponseEntity<Object> handleLimiterException(LimiterException e) {
         return ResponseEntity
                 .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getLast()))
                 .body(factory.error(CommonErrorCode.LIMIT, e.getMessage()));
     }
 }
@@ -2,10 +2,28 @@ package site.zido.coffee.autoconfigure.extra.limiter;
 
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+import site.zido.coffee.extra.limiter.NearCacheFrequencyLimiter;
 
 @ConfigurationProperties(prefix = "coffee.limiter")
 public class LimiterProperties {
     private String prefix;
+    /**
+     * 内存限流器最多保存的key数量
+     */
+    private Long maximumSize;
+    /**
+     * 内存限流器的存储方式
+     */
+    private StorageMode storageMode = StorageMode.LINKED;
+    /**
+     * 内存限流器的快照文件，为空时不保存快照
+     */
+    private String snapshotPath;
+    /**
+     * 远程限制器的本地拒绝缓存
+     */
+    private NearCache nearCache = new NearCache();
 
     public String getPrefix() {
         return prefix;
@@ -14,4 +32,63 @@ public class LimiterProperties {
     public void setPrefix(String prefix) {
         this.prefix = prefix;
     }
+
+    public Long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(Long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    public void setStorageMode(StorageMode storageMode) {
+        this.storageMode = storageMode;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    public static class NearCache {
+        /**
+         * 是否在本地缓存被redis拒绝的key
+         */
+        private boolean enabled = false;
+        /**
+         * 本地最多缓存的key数量
+         */
+        private long maximumSize = NearCacheFrequencyLimiter.DEFAULT_MAXIMUM_SIZE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
 }
@@ -16,7 +16,13 @@ import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.StringUtils;
 import site.zido.coffee.extra.limiter.FrequencyLimiter;
+import site.zido.coffee.extra.limiter.NearCacheFrequencyLimiter;
+import site.zido.coffee.extra.limiter.RateLimiter;
 import site.zido.coffee.extra.limiter.RedisFrequencyLimiter;
+import site.zido.coffee.extra.limiter.RedisGcraLimiter;
+import site.zido.coffee.extra.limiter.RedisSlidingWindowCounterLimiter;
+import site.zido.coffee.extra.limiter.RedisSlidingWindowLogLimiter;
+import site.zido.coffee.extra.limiter.RedisTokenBucketLimiter;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -56,9 +62,57 @@ public class LimiterRedisConfiguration {
     @ConditionalOnMissingBean(FrequencyLimiter.class)
     public FrequencyLimiter limiter(@Autowired LimiterProperties properties,
                                     @Autowired @Qualifier(value = "limiterTemplate") RedisTemplate<String, Long> template) {
+        FrequencyLimiter limiter = StringUtils.hasLength(properties.getPrefix())
+                ? new RedisFrequencyLimiter(properties.getPrefix(), template)
+                : new RedisFrequencyLimiter(template);
+        LimiterProperties.NearCache nearCache = properties.getNearCache();
+        if (nearCache.isEnabled()) {
+            return new NearCacheFrequencyLimiter(limiter, nearCache.getMaximumSize());
+        }
+        return limiter;
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "limiterTemplate")
+    @ConditionalOnMissingBean(name = "tokenBucketLimiter")
+    public RateLimiter tokenBucketLimiter(@Autowired LimiterProperties properties,
+                                          @Autowired @Qualifier(value = "limiterTemplate") RedisTemplate<String, Long> template) {
+        if (StringUtils.hasLength(properties.getPrefix())) {
+            return new RedisTokenBucketLimiter(properties.getPrefix() + "bucket:", template);
+        }
+        return new RedisTokenBucketLimiter(template);
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "limiterTemplate")
+    @ConditionalOnMissingBean(name = "slidingWindowCounterLimiter")
+    public RateLimiter slidingWindowCounterLimiter(@Autowired LimiterProperties properties,
+                                                   @Autowired @Qualifier(value = "limiterTemplate") RedisTemplate<String, Long> template) {
+        if (StringUtils.hasLength(properties.getPrefix())) {
+            return new RedisSlidingWindowCounterLimiter(properties.getPrefix() + "counter:", template);
+        }
+        return new RedisSlidingWindowCounterLimiter(template);
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "limiterTemplate")
+    @ConditionalOnMissingBean(name = "slidingWindowLogLimiter")
+    public RateLimiter slidingWindowLogLimiter(@Autowired LimiterProperties properties,
+                                               @Autowired @Qualifier(value = "limiterTemplate") RedisTemplate<String, Long> template) {
+        if (StringUtils.hasLength(properties.getPrefix())) {
+            return new RedisSlidingWindowLogLimiter(properties.getPrefix() + "log:", template);
+        }
+        return new RedisSlidingWindowLogLimiter(template);
+    }
+
+    @Bean
+    @ConditionalOnBean(name = "limiterTemplate")
+    @ConditionalOnMissingBean(name = "gcraLimiter")
+    public RateLimiter gcraLimiter(@Autowired LimiterProperties properties,
+                                   @Autowired @Qualifier(value = "limiterTemplate") RedisTemplate<String, Long> template) {
         if (StringUtils.hasLength(properties.getPrefix())) {
-            return new RedisFrequencyLimiter(properties.getPrefix(), template);
+            return new RedisGcraLimiter(properties.getPrefix() + "gcra:", template);
         }
-        return new RedisFrequencyLimiter(template);
+        return new RedisGcraLimiter(template);
     }
 }
@@ -0,0 +1,126 @@
+package site.zido.coffee.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.zido.coffee.core.utils.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BeanUtils#transformFrom(Object, Class)}以及批量转换的开销
+ *
+ * @author zido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BeanUtilsBenchmark {
+    private final User user = new User();
+    private final List<User> users = new ArrayList<>();
+
+    public BeanUtilsBenchmark() {
+        user.setId(1L);
+        user.setName("zido");
+        user.setEmail("zido@example.com");
+        user.setAge(18);
+        for (int i = 0; i < 10000; i++) {
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public UserDTO transformFrom() {
+        return BeanUtils.transformFrom(user, UserDTO.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<UserDTO> transformFromInBatch() {
+        return BeanUtils.transformFromInBatch(users, UserDTO.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<UserDTO> transformFromInBatchSequential() {
+        return BeanUtils.transformFromInBatch(users, UserDTO.class, 0);
+    }
+
+    public static class User {
+        private Long id;
+        private String name;
+        private String email;
+        private Integer age;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+    }
+
+    public static class UserDTO {
+        private Long id;
+        private String name;
+        private String email;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package site.zido.coffee.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 运行所有基准测试，并将结果合并写入同一个JSON文件
+ * <p>
+ * {@link ExpireMapBenchmark}会依次在{@link #THREADS}个线程下运行，其余基准测试只运行一次。
+ * 参数与JMH命令行相同，结果文件通过系统属性{@code benchmark.result}指定
+ *
+ * @author zido
+ */
+public final class BenchmarkMain {
+    private static final int[] THREADS = {1, 4, 16, 64};
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String result = System.getProperty("benchmark.result", "target/jmh-result.json");
+        List<RunResult> results = new ArrayList<>();
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(ExpireMapBenchmark.class.getName())
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(SystemClockBenchmark.class.getName())
+                .include(IdWorkerBenchmark.class.getName())
+                .include(BeanUtilsBenchmark.class.getName())
+                .build();
+        results.addAll(new Runner(options).run());
+        ResultFormatFactory.getInstance(ResultFormatType.JSON, result).writeOut(results);
+    }
+}
@@ -0,0 +1,89 @@
+package site.zido.coffee.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExpireMap}读多、写多以及读写混合(3:1)的吞吐量，线程数由{@link BenchmarkMain}控制
+ *
+ * @author zido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExpireMapBenchmark {
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+
+    @Param({"LINKED", "COMPACT"})
+    public StorageMode storageMode;
+
+    private ExpireMap<String, Integer> map;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ExpireMap.Builder<String, Integer> builder = new ExpireMap.Builder<>();
+        builder.setStorageMode(storageMode);
+        builder.setBackgroundRelease(true);
+        map = builder.build();
+        keys = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = "key" + i;
+            map.set(keys[i], i, TimeUnit.MINUTES.toMillis(10));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index = ThreadLocalRandom.current().nextInt(SIZE);
+
+        int next() {
+            return index++ & MASK;
+        }
+    }
+
+    @Benchmark
+    public Integer read(Cursor cursor) {
+        return map.get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public void write(Cursor cursor) {
+        int i = cursor.next();
+        map.set(keys[i], i, TimeUnit.MINUTES.toMillis(10));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Integer mixedRead(Cursor cursor) {
+        return map.get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(Cursor cursor) {
+        int i = cursor.next();
+        map.set(keys[i], i, TimeUnit.MINUTES.toMillis(10));
+    }
+}
@@ -0,0 +1,45 @@
+package site.zido.coffee.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import site.zido.coffee.core.utils.IdWorker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IdWorker}不同同步方式的吞吐量，单个节点每毫秒最多生成4096个id
+ *
+ * @author zido
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class IdWorkerBenchmark {
+    private final IdWorker idWorker = new IdWorker(1, 1);
+    private final IdWorker blockIdWorker = new IdWorker(1, 1, 64);
+
+    @Benchmark
+    public long next() {
+        return idWorker.next();
+    }
+
+    @Benchmark
+    public long nextWithSync() {
+        return idWorker.nextWithSync();
+    }
+
+    @Benchmark
+    public long nextWithThreadBlock() {
+        return blockIdWorker.next();
+    }
+}
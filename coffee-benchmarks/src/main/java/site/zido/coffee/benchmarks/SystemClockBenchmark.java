@@ -0,0 +1,33 @@
+package site.zido.coffee.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SystemClock#now()}与{@link System#currentTimeMillis()}的开销对比
+ *
+ * @author zido
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SystemClockBenchmark {
+
+    @Benchmark
+    public long systemClock() {
+        return SystemClock.now();
+    }
+
+    @Benchmark
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,150 @@
+package site.zido.coffee.core.utils;
+
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 属性复制器，按照(源类型, 目标类型)缓存
+ * <p>
+ * 创建时解析一次两个类型的属性，将名称相同、类型兼容的getter/setter绑定为{@link MethodHandle}，
+ * 复制时只是依次调用，跳过值为null的属性，不再有反射查找以及中间集合
+ *
+ * @author zido
+ */
+final class BeanCopier {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    /**
+     * 以源类型为key，随类加载器一起回收
+     */
+    private static final ClassValue<ConcurrentMap<Class<?>, BeanCopier>> CACHE =
+            new ClassValue<ConcurrentMap<Class<?>, BeanCopier>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, BeanCopier> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Class<?> targetClass;
+    private final MethodHandle constructor;
+    private final String[] names;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+
+    private BeanCopier(Class<?> sourceClass, Class<?> targetClass) {
+        this.targetClass = targetClass;
+        this.constructor = findConstructor(targetClass);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        for (PropertyDescriptor targetProperty : org.springframework.beans.BeanUtils.getPropertyDescriptors(targetClass)) {
+            Method writeMethod = targetProperty.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            PropertyDescriptor sourceProperty = org.springframework.beans.BeanUtils.getPropertyDescriptor(sourceClass, targetProperty.getName());
+            if (sourceProperty == null) {
+                continue;
+            }
+            Method readMethod = sourceProperty.getReadMethod();
+            if (readMethod == null || !ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType())) {
+                continue;
+            }
+            try {
+                getters.add(lookup.unreflect(accessible(readMethod)).asType(GETTER_TYPE));
+                setters.add(lookup.unreflect(accessible(writeMethod)).asType(SETTER_TYPE));
+                names.add(targetProperty.getName());
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new BeanUtilsException("Could not access property '" + targetProperty.getName() + "' from "
+                        + sourceClass.getName() + " to " + targetClass.getName(), e);
+            }
+        }
+        this.names = names.toArray(new String[0]);
+        this.getters = getters.toArray(new MethodHandle[0]);
+        this.setters = setters.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * @param sourceClass 源类型
+     * @param targetClass 目标类型
+     * @return 缓存的复制器
+     */
+    static BeanCopier of(Class<?> sourceClass, Class<?> targetClass) {
+        ConcurrentMap<Class<?>, BeanCopier> copiers = CACHE.get(sourceClass);
+        BeanCopier copier = copiers.get(targetClass);
+        if (copier == null) {
+            copier = copiers.computeIfAbsent(targetClass, type -> new BeanCopier(sourceClass, type));
+        }
+        return copier;
+    }
+
+    /**
+     * 使用无参构造器创建目标类型的实例
+     *
+     * @return 目标实例
+     */
+    Object newTarget() {
+        if (constructor == null) {
+            throw new BeanUtilsException("Failed to new " + targetClass.getName() + " instance: no accessible default constructor");
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new BeanUtilsException("Failed to new " + targetClass.getName() + " instance", e);
+        }
+    }
+
+    /**
+     * 复制所有非null的属性
+     *
+     * @param source 源对象
+     * @param target 目标对象
+     */
+    void copyNonNull(Object source, Object target) {
+        for (int i = 0; i < getters.length; i++) {
+            String name = names[i];
+            try {
+                Object value = (Object) getters[i].invokeExact(source);
+                if (value != null) {
+                    setters[i].invokeExact(target, value);
+                }
+            } catch (Throwable e) {
+                throw new BeanUtilsException("Could not copy property '" + name + "' from source to target", e);
+            }
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            return MethodHandles.lookup().unreflectConstructor(accessible(constructor)).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static <T extends AccessibleObject & Member> T accessible(T member) {
+        if (!Modifier.isPublic(member.getModifiers()) || !Modifier.isPublic(member.getDeclaringClass().getModifiers())) {
+            member.setAccessible(true);
+        }
+        return member;
+    }
+}
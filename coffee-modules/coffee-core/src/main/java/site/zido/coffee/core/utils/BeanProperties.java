@@ -0,0 +1,116 @@
+package site.zido.coffee.core.utils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个类型的属性访问器，供{@link BeanUtils#objectToMap(Object)}与{@link BeanUtils#mapToObject(Map, Class)}使用
+ * <p>
+ * 每个类型只内省一次，getter/setter绑定为{@link MethodHandle}，缓存随类加载器一起回收
+ *
+ * @author zido
+ */
+final class BeanProperties {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ClassValue<BeanProperties> CACHE = new ClassValue<BeanProperties>() {
+        @Override
+        protected BeanProperties computeValue(Class<?> type) {
+            return new BeanProperties(type);
+        }
+    };
+
+    private final Class<?> type;
+    /**
+     * 除class以外的所有属性，没有getter时对应的handle为null
+     */
+    private final String[] readableNames;
+    private final MethodHandle[] getters;
+    private final String[] writableNames;
+    private final MethodHandle[] setters;
+    private final int mapCapacity;
+
+    private BeanProperties(Class<?> type) {
+        this.type = type;
+        PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new BeanUtilsException("cannot get bean info", e);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<String> readableNames = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        List<String> writableNames = new ArrayList<>();
+        List<MethodHandle> setters = new ArrayList<>();
+        for (PropertyDescriptor descriptor : descriptors) {
+            String name = descriptor.getName();
+            Method setter = descriptor.getWriteMethod();
+            if (setter != null) {
+                writableNames.add(name);
+                setters.add(bind(lookup, setter, SETTER_TYPE));
+            }
+            if (name.compareToIgnoreCase("class") == 0) {
+                continue;
+            }
+            Method getter = descriptor.getReadMethod();
+            readableNames.add(name);
+            getters.add(getter == null ? null : bind(lookup, getter, GETTER_TYPE));
+        }
+        this.readableNames = readableNames.toArray(new String[0]);
+        this.getters = getters.toArray(new MethodHandle[0]);
+        this.writableNames = writableNames.toArray(new String[0]);
+        this.setters = setters.toArray(new MethodHandle[0]);
+        this.mapCapacity = (int) (this.readableNames.length / 0.75f) + 1;
+    }
+
+    static BeanProperties of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    Map<String, Object> toMap(Object obj) {
+        Map<String, Object> map = new HashMap<>(mapCapacity);
+        for (int i = 0; i < getters.length; i++) {
+            MethodHandle getter = getters[i];
+            Object value;
+            try {
+                value = getter == null ? null : (Object) getter.invokeExact(obj);
+            } catch (Throwable e) {
+                throw new BeanUtilsException("cannot read property " + type.getName() + "#" + readableNames[i], e);
+            }
+            map.put(readableNames[i], value);
+        }
+        return map;
+    }
+
+    void fromMap(Map<String, Object> map, Object obj) {
+        for (int i = 0; i < setters.length; i++) {
+            try {
+                setters[i].invokeExact(obj, map.get(writableNames[i]));
+            } catch (Throwable e) {
+                throw new BeanUtilsException("cannot write property " + type.getName() + "#" + writableNames[i], e);
+            }
+        }
+    }
+
+    private static MethodHandle bind(MethodHandles.Lookup lookup, Method method, MethodType methodType) {
+        if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+        try {
+            return lookup.unreflect(method).asType(methodType);
+        } catch (IllegalAccessException e) {
+            throw new BeanUtilsException("cannot access method " + method.getDeclaringClass().getName() + "#" + method.getName(), e);
+        }
+    }
+}
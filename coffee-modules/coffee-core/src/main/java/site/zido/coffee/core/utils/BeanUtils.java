@@ -1,20 +1,13 @@
 package site.zido.coffee.core.utils;
 
-import org.springframework.beans.BeanWrapperImpl;
-import org.springframework.beans.BeansException;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Bean utilities.
@@ -23,6 +16,13 @@ import java.util.stream.Collectors;
  */
 public class BeanUtils {
 
+    /**
+     * Suggested {@code parallelThreshold} for callers opting into parallel transformation via
+     * {@link #transformFromInBatch(Collection, Class, int)}.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    private static final int BATCH_CHUNK_SIZE = 1024;
+
     private BeanUtils() {
     }
 
@@ -43,21 +43,17 @@ public class BeanUtils {
             return null;
         }
 
-        // Init the instance
-        try {
-            // New instance for the target class
-            T targetInstance = targetClass.newInstance();
-            // Copy properties
-            org.springframework.beans.BeanUtils.copyProperties(source, targetInstance, getNullPropertyNames(source));
-            // Return the target instance
-            return targetInstance;
-        } catch (Exception e) {
-            throw new BeanUtilsException("Failed to new " + targetClass.getName() + " instance or copy properties", e);
-        }
+        BeanCopier copier = BeanCopier.of(source.getClass(), targetClass);
+        T targetInstance = targetClass.cast(copier.newTarget());
+        copier.copyNonNull(source, targetInstance);
+        return targetInstance;
     }
 
     /**
      * Transforms from source data collection in batch.
+     * <p>
+     * Always runs on the calling thread, so sources bound to it (e.g. lazy JPA proxies or thread-local
+     * context) are safe to read.
      *
      * @param sources     source data collection
      * @param targetClass target class must not be null
@@ -67,14 +63,42 @@ public class BeanUtils {
      */
     @NonNull
     public static <T> List<T> transformFromInBatch(Collection<?> sources, @NonNull Class<T> targetClass) {
+        return transformFromInBatch(sources, targetClass, 0);
+    }
+
+    /**
+     * Transforms from source data collection in batch.
+     * <p>
+     * The copy plan is resolved once per source class. Collections with at least {@code parallelThreshold}
+     * elements are split into chunks of {@value #BATCH_CHUNK_SIZE} and transformed on the common fork-join pool
+     * into a pre-sized result; the order of the result is the iteration order of the sources.
+     * Getters are then invoked concurrently from pool threads, so only opt in for sources that are safe to read
+     * outside the calling thread (not lazy JPA entities or anything relying on thread-local context).
+     *
+     * @param sources           source data collection
+     * @param targetClass       target class must not be null
+     * @param parallelThreshold minimum size to transform in parallel, less than or equal to 0 means never
+     * @param <T>               target class type
+     * @return target collection transforming from source data collection.
+     * @throws BeanUtilsException if newing target instance failed or copying failed
+     */
+    @NonNull
+    public static <T> List<T> transformFromInBatch(Collection<?> sources, @NonNull Class<T> targetClass, int parallelThreshold) {
+        Assert.notNull(targetClass, "Target class must not be null");
         if (CollectionUtils.isEmpty(sources)) {
             return Collections.emptyList();
         }
 
-        // Transform in batch
-        return sources.stream()
-                .map(source -> transformFrom(source, targetClass))
-                .collect(Collectors.toList());
+        Object[] sourceArray = sources.toArray();
+        Object[] targets = new Object[sourceArray.length];
+        if (parallelThreshold > 0 && sourceArray.length >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new BatchTransformTask(sourceArray, targets, targetClass, 0, sourceArray.length));
+        } else {
+            transformRange(sourceArray, targets, targetClass, 0, sourceArray.length);
+        }
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) new ArrayList<>(Arrays.asList(targets));
+        return result;
     }
 
     /**
@@ -89,52 +113,17 @@ public class BeanUtils {
         Assert.notNull(target, "target object must not be null");
 
         // Set non null properties from source properties to target properties
-        try {
-            org.springframework.beans.BeanUtils.copyProperties(source, target, getNullPropertyNames(source));
-        } catch (BeansException e) {
-            throw new BeanUtilsException("Failed to copy properties", e);
-        }
+        BeanCopier.of(source.getClass(), target.getClass()).copyNonNull(source, target);
     }
 
     /**
-     * Gets null names array of property.
+     * Creates an instance of the bean class and sets every writable property from the map.
      *
-     * @param source object data must not be null
-     * @return null name array of property
+     * @param map       property values
+     * @param beanClass bean class with a default constructor
+     * @return bean; or null if the map is null
+     * @throws BeanUtilsException if newing the instance or setting a property failed
      */
-    @NonNull
-    private static String[] getNullPropertyNames(@NonNull Object source) {
-        return getNullPropertyNameSet(source).toArray(new String[0]);
-    }
-
-    /**
-     * Gets null names set of property.
-     *
-     * @param source object data must not be null
-     * @return null name set of property
-     */
-    @NonNull
-    private static Set<String> getNullPropertyNameSet(@NonNull Object source) {
-
-        Assert.notNull(source, "source object must not be null");
-        BeanWrapperImpl beanWrapper = new BeanWrapperImpl(source);
-        PropertyDescriptor[] propertyDescriptors = beanWrapper.getPropertyDescriptors();
-
-        Set<String> emptyNames = new HashSet<>();
-
-        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-            String propertyName = propertyDescriptor.getName();
-            Object propertyValue = beanWrapper.getPropertyValue(propertyName);
-
-            // if property value is equal to null, add it to empty name set
-            if (propertyValue == null) {
-                emptyNames.add(propertyName);
-            }
-        }
-
-        return emptyNames;
-    }
-
     public static Object mapToObject(Map<String, Object> map, Class<?> beanClass) {
         if (map == null)
             return null;
@@ -146,55 +135,71 @@ public class BeanUtils {
             throw new BeanUtilsException("cannot instant class: " + beanClass.getName(), e);
         }
 
-        BeanInfo beanInfo;
-        try {
-            beanInfo = Introspector.getBeanInfo(obj.getClass());
-        } catch (IntrospectionException e) {
-            throw new BeanUtilsException("cannot get bean info", e);
-        }
-        PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-        for (PropertyDescriptor property : propertyDescriptors) {
-            Method setter = property.getWriteMethod();
-            if (setter != null) {
-                try {
-                    setter.invoke(obj, map.get(property.getName()));
-                } catch (IllegalAccessException | InvocationTargetException e) {
-                    throw new BeanUtilsException("cannot invoke method " + obj.getClass().getName() + "#" + setter.getName(), e);
-                }
-            }
-        }
-
+        BeanProperties.of(obj.getClass()).fromMap(map, obj);
         return obj;
     }
 
+    /**
+     * Reads every property except {@code class} into a map.
+     *
+     * @param obj bean
+     * @return property map; or null if the bean is null
+     * @throws BeanUtilsException if reading a property failed
+     */
     public static Map<String, Object> objectToMap(Object obj) {
         if (obj == null)
             return null;
 
-        Map<String, Object> map = new HashMap<>();
+        return BeanProperties.of(obj.getClass()).toMap(obj);
+    }
 
-        BeanInfo beanInfo;
-        try {
-            beanInfo = Introspector.getBeanInfo(obj.getClass());
-        } catch (IntrospectionException e) {
-            throw new BeanUtilsException("cannot get bean info", e);
-        }
-        PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-        for (PropertyDescriptor property : propertyDescriptors) {
-            String key = property.getName();
-            if (key.compareToIgnoreCase("class") == 0) {
+    private static void transformRange(Object[] sources, Object[] targets, Class<?> targetClass, int from, int to) {
+        Class<?> sourceClass = null;
+        BeanCopier copier = null;
+        for (int i = from; i < to; i++) {
+            Object source = sources[i];
+            if (source == null) {
                 continue;
             }
-            Method getter = property.getReadMethod();
-            Object value;
-            try {
-                value = getter != null ? getter.invoke(obj) : null;
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new BeanUtilsException("cannot invoke method " + obj.getClass().getName() + "#" + getter.getName(), e);
+            // Sources are usually of one class, so reuse the last copier
+            if (source.getClass() != sourceClass) {
+                sourceClass = source.getClass();
+                copier = BeanCopier.of(sourceClass, targetClass);
             }
-            map.put(key, value);
+            Object target = copier.newTarget();
+            copier.copyNonNull(source, target);
+            targets[i] = target;
         }
+    }
 
-        return map;
+    /**
+     * Transforms a range of the sources, splitting in halves until the range fits in one chunk.
+     */
+    private static class BatchTransformTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Object[] sources;
+        private final Object[] targets;
+        private final Class<?> targetClass;
+        private final int from;
+        private final int to;
+
+        BatchTransformTask(Object[] sources, Object[] targets, Class<?> targetClass, int from, int to) {
+            this.sources = sources;
+            this.targets = targets;
+            this.targetClass = targetClass;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTransformTask(sources, targets, targetClass, from, middle),
+                        new BatchTransformTask(sources, targets, targetClass, middle, to));
+                return;
+            }
+            transformRange(sources, targets, targetClass, from, to);
+        }
     }
 }
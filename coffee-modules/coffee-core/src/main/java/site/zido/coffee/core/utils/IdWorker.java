@@ -4,9 +4,9 @@ import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
 /**
  * 分布式id生成器<br>
@@ -22,50 +22,183 @@ public class IdWorker {
         INSTANCE = new IdWorker();
     }
 
+    /**
+     * 默认的时间戳位数，可以使用约69年
+     */
+    public static final int DEFAULT_TIMESTAMP_BITS = 41;
+    public static final int DEFAULT_DATA_CENTER_ID_BITS = 5;
+    public static final int DEFAULT_WORKER_ID_BITS = 5;
+    /**
+     * 默认的序列号位数，每个节点每毫秒最多生成4096个id
+     */
+    public static final int DEFAULT_SEQUENCE_BITS = 12;
+    /**
+     * 默认的起始时间(twitter epoch)
+     */
+    public static final long DEFAULT_EPOCH = 1288834974657L;
+    /**
+     * 允许等待的最大时钟回拨
+     */
+    private static final long MAX_BACKWARD_MILLIS = 5L;
+
     /**
      * 机器id所占的位数
      */
-    private final long workerIdBits = 5L;
+    private final int workerIdBits;
     /**
      * 数据标识id所占的位数
      */
-    private final long dataCenterIdBits = 5L;
+    private final int dataCenterIdBits;
+    /**
+     * 序列在id中占的位数
+     */
+    private final int sequenceBits;
+    /**
+     * 生成序列的掩码，默认为4095 (0b111111111111=0xfff=4095)
+     */
+    private final long sequenceMask;
+    /**
+     * 数据标识id向左移的位数，默认为17(12+5)
+     */
+    private final int dataCenterIdShift;
+    /**
+     * 时间截向左移的位数，默认为22(5+5+12)
+     */
+    private final int timestampLeftShift;
+    /**
+     * 能够表示的最大时间戳(相对于epoch)
+     */
+    private final long maxTimestamp;
+    private final long epoch;
     /**
-     * 支持的最大机器id，结果是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
+     * 高位为上次生成id的时间戳(相对于epoch)，低位为序列号
      */
-    private final long maxWorkerId = ~(-1L << workerIdBits);
+    private final AtomicLong state = new AtomicLong();
     /**
-     * 支持的最大数据标识id，结果是31
+     * 线程分段，未启用时为null
      */
-    private final long maxDataCenterId = ~(-1L << dataCenterIdBits);
-    private final Lock lock = new ReentrantLock();
-    private final Condition condition = lock.newCondition();
-    private long workerId;
-    private long dataCenterId;
-    private long sequence;
-    private long lastTimestamp = -1L;
+    private final ThreadLocal<Block> threadBlock;
+    private final long workerId;
+    private final long dataCenterId;
+    /**
+     * 生成id前的检查，未设置时为null
+     */
+    private final BooleanSupplier guard;
 
     public IdWorker() {
-        dataCenterId = getDataCenterId(maxDataCenterId);
-        workerId = getMaxWorkerId(dataCenterId, maxWorkerId);
+        this(new Builder());
     }
 
     public IdWorker(long workerId, long dataCenterId) {
-        if (workerId > maxWorkerId || workerId < 0) {
+        this(workerId, dataCenterId, 1);
+    }
+
+    /**
+     * @param workerId        机器id
+     * @param dataCenterId    数据中心id
+     * @param threadBlockSize 每个线程每次预留的序列号数量，大于1时启用线程分段
+     * @see Builder#setThreadBlockSize(int)
+     */
+    public IdWorker(long workerId, long dataCenterId, int threadBlockSize) {
+        this(builder(workerId, dataCenterId, threadBlockSize));
+    }
+
+    public IdWorker(Builder builder) {
+        long totalBits = (long) builder.getTimestampBits() + builder.getDataCenterIdBits()
+                + builder.getWorkerIdBits() + builder.getSequenceBits();
+        if (totalBits != 63) {
+            throw new IllegalArgumentException(String.format("the sum of all bits must be 63, but got %d", totalBits));
+        }
+        if (builder.getSequenceBits() < 1 || builder.getDataCenterIdBits() < 0 || builder.getWorkerIdBits() < 0) {
+            throw new IllegalArgumentException("sequence bits must be positive and id bits must not be negative");
+        }
+        this.workerIdBits = builder.getWorkerIdBits();
+        this.dataCenterIdBits = builder.getDataCenterIdBits();
+        this.sequenceBits = builder.getSequenceBits();
+        this.sequenceMask = ~(-1L << sequenceBits);
+        this.dataCenterIdShift = sequenceBits + workerIdBits;
+        this.timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
+        this.maxTimestamp = ~(-1L << builder.getTimestampBits());
+        this.epoch = builder.getEpoch();
+        long now = timeGen();
+        if (epoch > now || now - epoch > maxTimestamp) {
+            throw new IllegalArgumentException(String.format("epoch %d cannot be represented by %d timestamp bits now",
+                    epoch, builder.getTimestampBits()));
+        }
+        long maxIdsPerMillis = getMaxIdsPerMillis();
+        if (builder.getRequiredIdsPerMillis() > maxIdsPerMillis) {
+            throw new IllegalArgumentException(String.format("%d sequence bits can generate at most %d ids per millisecond, but %d required",
+                    sequenceBits, maxIdsPerMillis, builder.getRequiredIdsPerMillis()));
+        }
+        int threadBlockSize = builder.getThreadBlockSize();
+        if (threadBlockSize < 1 || threadBlockSize > maxIdsPerMillis) {
+            throw new IllegalArgumentException(String.format("thread block size must be between 1 and %d", maxIdsPerMillis));
+        }
+        long maxWorkerId = getMaxWorkerId();
+        long maxDataCenterId = getMaxDataCenterId();
+        long dataCenterId = builder.getDataCenterId() < 0 ? getDataCenterId(maxDataCenterId) : builder.getDataCenterId();
+        long workerId = builder.getWorkerId() < 0 ? getMaxWorkerId(dataCenterId, maxWorkerId) : builder.getWorkerId();
+        if (workerId > maxWorkerId) {
             throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
         }
-
-        if (dataCenterId > maxDataCenterId || dataCenterId < 0) {
+        if (dataCenterId > maxDataCenterId) {
             throw new IllegalArgumentException(String.format("dataCenter Id can't be greater than %d or less than 0", maxDataCenterId));
         }
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
+        this.threadBlock = threadBlockSize > 1 ? ThreadLocal.withInitial(() -> new Block(threadBlockSize)) : null;
+        this.guard = builder.getGuard();
+    }
+
+    private static Builder builder(long workerId, long dataCenterId, int threadBlockSize) {
+        if (workerId < 0) {
+            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0",
+                    ~(-1L << DEFAULT_WORKER_ID_BITS)));
+        }
+        if (dataCenterId < 0) {
+            throw new IllegalArgumentException(String.format("dataCenter Id can't be greater than %d or less than 0",
+                    ~(-1L << DEFAULT_DATA_CENTER_ID_BITS)));
+        }
+        Builder builder = new Builder();
+        builder.setWorkerId(workerId);
+        builder.setDataCenterId(dataCenterId);
+        builder.setThreadBlockSize(threadBlockSize);
+        return builder;
     }
 
     public static long nextId() {
         return INSTANCE.next();
     }
 
+    /**
+     * @return 支持的最大机器id
+     */
+    public long getMaxWorkerId() {
+        return ~(-1L << workerIdBits);
+    }
+
+    /**
+     * @return 支持的最大数据标识id
+     */
+    public long getMaxDataCenterId() {
+        return ~(-1L << dataCenterIdBits);
+    }
+
+    /**
+     * @return 单个节点每毫秒最多生成的id数量
+     */
+    public long getMaxIdsPerMillis() {
+        return sequenceMask + 1;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
     /**
      * 获取 maxWorkerId
      *
@@ -77,7 +210,7 @@ public class IdWorker {
         StringBuilder mpid = new StringBuilder();
         mpid.append(dataCenterId);
         String name = ManagementFactory.getRuntimeMXBean().getName();
-        if ("".equals(name)) {
+        if (!"".equals(name)) {
             // GET jvmPid
             mpid.append(name.split("@")[0]);
         }
@@ -111,110 +244,148 @@ public class IdWorker {
     }
 
     /**
-     * 效率稍低
+     * 与{@link #next()}相同，保留用于兼容
      *
      * @return id
      */
     public synchronized long nextWithSync() {
-        return doNext();
+        return next();
     }
 
     /**
-     * 效率更高。<b>推荐</b>
+     * 无锁生成id。<b>推荐</b>
      * <p>
-     * 但是存在部分cpu空转
+     * 上次的时间戳与序列号打包在同一个{@link AtomicLong}中，通过CAS推进，吞吐量随核数增长。
+     * 同一毫秒内序列号用尽时自旋到下一毫秒。启用线程分段时优先从当前线程预留的序列号中分配
      *
      * @return id
      */
     public long next() {
-        lock.lock();
-        try {
-            return doNextWithCondition();
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private long doNextWithCondition() {
-        long timeStamp = timeGen();
-        int maxOffset = 5;
-        if (timeStamp < lastTimestamp) {
-            long offset = lastTimestamp - timeStamp;
-            if (offset <= maxOffset) {
-                try {
-                    condition.await(offset << 1, TimeUnit.MILLISECONDS);
-                    timeStamp = timeGen();
-                    if (timeStamp < lastTimestamp) {
-                        throw new RuntimeException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", offset));
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException(e);
-                }
-            }
+        checkGuard();
+        if (threadBlock != null) {
+            return threadBlock.get().next();
         }
-        return createId(timeStamp);
-    }
-
-    private long doNext() {
-        long timeStamp = timeGen();
-        int maxOffset = 5;
-        if (timeStamp < lastTimestamp) {
-            long offset = lastTimestamp - timeStamp;
-            if (offset <= maxOffset) {
-                try {
-                    wait(offset << 1);
-                    timeStamp = timeGen();
-                    if (timeStamp < lastTimestamp) {
-                        throw new RuntimeException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", offset));
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException(e);
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = nextState(current, 1);
+        } while (!state.compareAndSet(current, next));
+        return toId(next);
+    }
+
+    /**
+     * 批量生成id，每次CAS最多预留当前毫秒内剩余的全部序列号
+     *
+     * @param n 数量
+     * @return 递增的id
+     */
+    public long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative");
+        }
+        long[] ids = new long[n];
+        fill(ids);
+        return ids;
+    }
+
+    /**
+     * 使用递增的id填充数组
+     *
+     * @param ids 数组
+     */
+    public void fill(long[] ids) {
+        checkGuard();
+        int i = 0;
+        while (i < ids.length) {
+            long current = state.get();
+            long next = nextState(current, ids.length - i);
+            if (state.compareAndSet(current, next)) {
+                for (long s = firstReserved(current, next); s <= next; s++) {
+                    ids[i++] = toId(s);
                 }
             }
         }
-        return createId(timeStamp);
     }
 
-    private long createId(long timeStamp) {
-        //序列在id中占的位数
-        long sequenceBits = 12L;
-        if (lastTimestamp == timeStamp) {
-            //生成序列的掩码，这里为4095 (0b111111111111=0xfff=4095)
-            long sequenceMask = ~(-1L << sequenceBits);
-            sequence = (sequence + 1) & sequenceMask;
-            if (sequence == 0) {
-                timeStamp = tilNextMillis(lastTimestamp);
+    private void checkGuard() {
+        if (guard != null && !guard.getAsBoolean()) {
+            throw new IllegalStateException(String.format("worker id %d of data center %d is no longer valid, refusing to generate id",
+                    workerId, dataCenterId));
+        }
+    }
+
+    /**
+     * 计算预留n个序列号之后的状态，时钟回拨不超过{@value #MAX_BACKWARD_MILLIS}毫秒时等待，否则抛出异常
+     * <p>
+     * 只在同一毫秒内预留，剩余序列号不足n个时只预留剩余的部分
+     */
+    private long nextState(long current, int n) {
+        long lastTimestamp = current >>> sequenceBits;
+        long timestamp = timeGen() - epoch;
+        if (timestamp < lastTimestamp) {
+            timestamp = waitBackwards(lastTimestamp, timestamp);
+        }
+        if (timestamp > maxTimestamp) {
+            throw new IllegalStateException("timestamp bits are exhausted, please use a later epoch");
+        }
+        long max = sequenceMask + 1;
+        if (timestamp > lastTimestamp) {
+            return timestamp << sequenceBits | (Math.min(n, max) - 1);
+        }
+        long sequence = current & sequenceMask;
+        if (sequence == sequenceMask) {
+            return tilNextMillis(lastTimestamp) << sequenceBits | (Math.min(n, max) - 1);
+        }
+        return current + Math.min(n, sequenceMask - sequence);
+    }
+
+    /**
+     * 从current推进到next时预留的第一个序列号对应的状态
+     */
+    private long firstReserved(long current, long next) {
+        if (next >>> sequenceBits == current >>> sequenceBits) {
+            return current + 1;
+        }
+        return next & ~sequenceMask;
+    }
+
+    private long waitBackwards(long lastTimestamp, long timestamp) {
+        long offset = lastTimestamp - timestamp;
+        if (offset <= MAX_BACKWARD_MILLIS) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(offset << 1));
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(new InterruptedException());
             }
-        } else {
-            sequence = 0L;
-        }
-        lastTimestamp = timeStamp;
-        //时间截向左移22位(5+5+12)
-        long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
-        //数据标识id向左移17位(12+5)
-        long dataCenterIdShift = sequenceBits + workerIdBits;
-        long twEpoch = 1288834974657L;
-        return ((timeStamp - twEpoch)) << timestampLeftShift
+            timestamp = timeGen() - epoch;
+        }
+        if (timestamp < lastTimestamp) {
+            throw new RuntimeException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", offset));
+        }
+        return timestamp;
+    }
+
+    private long toId(long state) {
+        long timestamp = state >>> sequenceBits;
+        long sequence = state & sequenceMask;
+        return timestamp << timestampLeftShift
                 | (dataCenterId << dataCenterIdShift)
                 | (workerId << sequenceBits)
                 | sequence;
-        //机器ID向左移12位
     }
 
     /**
      * 阻塞到下一个毫秒，直到获得新的时间戳
      *
-     * @param lastTimestamp 上次生成ID的时间截
-     * @return 当前时间戳
+     * @param lastTimestamp 上次生成ID的时间截(相对于epoch)
+     * @return 当前时间戳(相对于epoch)
      */
     private long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
+        long timestamp = timeGen() - epoch;
         while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
+            timestamp = timeGen() - epoch;
         }
-
         return timestamp;
     }
 
@@ -227,4 +398,160 @@ public class IdWorker {
         return SystemClock.now();
     }
 
+    /**
+     * 线程独占的一段序列号，只在预留时的那一毫秒内有效
+     */
+    private final class Block {
+        private final int size;
+        private long nextState;
+        private long endState = -1;
+
+        Block(int size) {
+            this.size = size;
+        }
+
+        long next() {
+            if (nextState > endState || nextState >>> sequenceBits < timeGen() - epoch) {
+                long current;
+                long next;
+                do {
+                    current = state.get();
+                    next = nextState(current, size);
+                } while (!state.compareAndSet(current, next));
+                nextState = firstReserved(current, next);
+                endState = next;
+            }
+            return toId(nextState++);
+        }
+    }
+
+    /**
+     * 构建器，默认布局为41位时间戳、5位数据中心id、5位机器id、12位序列号，四者之和必须为63
+     * <p>
+     * 单节点吞吐量不足时可以减少机器id或者数据中心id的位数，增加序列号的位数
+     */
+    public static class Builder {
+        private int timestampBits = DEFAULT_TIMESTAMP_BITS;
+        private int dataCenterIdBits = DEFAULT_DATA_CENTER_ID_BITS;
+        private int workerIdBits = DEFAULT_WORKER_ID_BITS;
+        private int sequenceBits = DEFAULT_SEQUENCE_BITS;
+        private long epoch = DEFAULT_EPOCH;
+        private long workerId = -1;
+        private long dataCenterId = -1;
+        private int threadBlockSize = 1;
+        private long requiredIdsPerMillis = 0;
+        private BooleanSupplier guard;
+
+        public int getTimestampBits() {
+            return timestampBits;
+        }
+
+        public void setTimestampBits(int timestampBits) {
+            this.timestampBits = timestampBits;
+        }
+
+        public int getDataCenterIdBits() {
+            return dataCenterIdBits;
+        }
+
+        public void setDataCenterIdBits(int dataCenterIdBits) {
+            this.dataCenterIdBits = dataCenterIdBits;
+        }
+
+        public int getWorkerIdBits() {
+            return workerIdBits;
+        }
+
+        public void setWorkerIdBits(int workerIdBits) {
+            this.workerIdBits = workerIdBits;
+        }
+
+        public int getSequenceBits() {
+            return sequenceBits;
+        }
+
+        public void setSequenceBits(int sequenceBits) {
+            this.sequenceBits = sequenceBits;
+        }
+
+        public long getEpoch() {
+            return epoch;
+        }
+
+        /**
+         * 设置起始时间，不能晚于当前时间，并且当前时间与起始时间的差值需要能够用时间戳位数表示
+         *
+         * @param epoch 起始时间(毫秒)
+         */
+        public void setEpoch(long epoch) {
+            this.epoch = epoch;
+        }
+
+        public long getWorkerId() {
+            return workerId;
+        }
+
+        /**
+         * @param workerId 机器id，小于0时根据进程信息计算
+         */
+        public void setWorkerId(long workerId) {
+            this.workerId = workerId;
+        }
+
+        public long getDataCenterId() {
+            return dataCenterId;
+        }
+
+        /**
+         * @param dataCenterId 数据中心id，小于0时根据mac地址计算
+         */
+        public void setDataCenterId(long dataCenterId) {
+            this.dataCenterId = dataCenterId;
+        }
+
+        public int getThreadBlockSize() {
+            return threadBlockSize;
+        }
+
+        /**
+         * 每个线程每次预留的序列号数量，大于1时启用线程分段，线程之间不再竞争同一个状态。
+         * 预留但未使用的序列号在下一毫秒作废，同一线程内id仍然递增，不同线程之间不再严格按照时间排序
+         *
+         * @param threadBlockSize 预留数量，不能超过每毫秒最多生成的id数量
+         */
+        public void setThreadBlockSize(int threadBlockSize) {
+            this.threadBlockSize = threadBlockSize;
+        }
+
+        public long getRequiredIdsPerMillis() {
+            return requiredIdsPerMillis;
+        }
+
+        /**
+         * 设置单节点每毫秒需要生成的id数量，序列号位数无法满足时构建失败
+         *
+         * @param requiredIdsPerMillis 每毫秒需要生成的id数量
+         */
+        public void setRequiredIdsPerMillis(long requiredIdsPerMillis) {
+            this.requiredIdsPerMillis = requiredIdsPerMillis;
+        }
+
+        public BooleanSupplier getGuard() {
+            return guard;
+        }
+
+        /**
+         * 设置生成id前的检查，返回false时拒绝生成并抛出{@link IllegalStateException}，
+         * 用于机器id由外部分配(例如租约)并且可能失效的场景
+         *
+         * @param guard 检查，为null时不检查
+         */
+        public void setGuard(BooleanSupplier guard) {
+            this.guard = guard;
+        }
+
+        public IdWorker build() {
+            return new IdWorker(this);
+        }
+    }
 }
@@ -21,6 +21,11 @@ public interface InputConverter<DOMAIN> {
      */
     @SuppressWarnings("unchecked")
     default DOMAIN convertTo() {
+        InputConverterPlan plan = InputConverterPlan.of(getClass());
+        if (plan != null) {
+            return plan.convert(this);
+        }
+
         ParameterizedType currentType = parameterizedType();
 
         Objects.requireNonNull(currentType, "Cannot fetch actual type because parameterized type is null");
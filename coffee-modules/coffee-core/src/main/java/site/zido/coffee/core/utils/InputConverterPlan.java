@@ -0,0 +1,69 @@
+package site.zido.coffee.core.utils;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * {@link InputConverter}实现类的转换计划，包含解析后的目标类型以及对应的属性复制器
+ * <p>
+ * 每个实现类只解析一次泛型参数，重写了{@link InputConverter#parameterizedType()}的实现类不使用缓存
+ *
+ * @author zido
+ */
+final class InputConverterPlan {
+    private static final ClassValue<InputConverterPlan> CACHE = new ClassValue<InputConverterPlan>() {
+        @Override
+        protected InputConverterPlan computeValue(Class<?> type) {
+            return new InputConverterPlan(type);
+        }
+    };
+
+    /**
+     * 实现类重写了泛型解析时为null
+     */
+    private final Class<?> domainClass;
+    private volatile BeanCopier copier;
+
+    private InputConverterPlan(Class<?> converterClass) {
+        this.domainClass = overridesParameterizedType(converterClass) ? null : resolveDomainClass(converterClass);
+    }
+
+    /**
+     * @param converterClass 转换器实现类
+     * @return 转换计划，实现类重写了泛型解析时返回null
+     */
+    static InputConverterPlan of(Class<?> converterClass) {
+        InputConverterPlan plan = CACHE.get(converterClass);
+        return plan.domainClass == null ? null : plan;
+    }
+
+    @SuppressWarnings("unchecked")
+    <DOMAIN> DOMAIN convert(Object source) {
+        BeanCopier copier = this.copier;
+        if (copier == null) {
+            // 延迟到第一次转换时创建，保持与未缓存时相同的异常时机
+            copier = BeanCopier.of(source.getClass(), domainClass);
+            this.copier = copier;
+        }
+        Object target = copier.newTarget();
+        copier.copyNonNull(source, target);
+        return (DOMAIN) target;
+    }
+
+    private static boolean overridesParameterizedType(Class<?> converterClass) {
+        try {
+            return converterClass.getMethod("parameterizedType").getDeclaringClass() != InputConverter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private static Class<?> resolveDomainClass(Class<?> converterClass) {
+        ParameterizedType currentType = ReflectionUtils.getParameterizedType(InputConverter.class, converterClass);
+        if (currentType == null) {
+            return null;
+        }
+        Type domainType = currentType.getActualTypeArguments()[0];
+        return domainType instanceof Class ? (Class<?>) domainType : null;
+    }
+}
@@ -1,9 +1,21 @@
 package site.zido.coffee.core.utils;
 
+import java.security.SecureRandom;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * 随机字符串工具
+ * <p>
+ * 默认使用{@link ThreadLocalRandom}，线程之间没有竞争。验证码、密钥等安全相关的场景可以传入{@link #secureRandom()}
+ *
+ * @author zido
+ */
 public final class RandomUtils {
+    /**
+     * 每个线程一个{@link SecureRandom}，避免多个线程竞争同一个实例的锁
+     */
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
 
     private RandomUtils() {
     }
@@ -12,6 +24,13 @@ public final class RandomUtils {
         return ThreadLocalRandom.current();
     }
 
+    /**
+     * @return 当前线程的{@link SecureRandom}
+     */
+    public static SecureRandom secureRandom() {
+        return SECURE_RANDOM.get();
+    }
+
     public static String lowerStr(int len) {
         return str(len, 'a', 'z');
     }
@@ -29,10 +48,53 @@ public final class RandomUtils {
     }
 
     public static String str(int len, int leftLimit, int rightLimit) {
-        Random random = getRandom();
-        return random.ints(leftLimit, rightLimit + 1)
-                .limit(len)
-                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
-                .toString();
+        return str(getRandom(), len, leftLimit, rightLimit);
+    }
+
+    /**
+     * 生成由[leftLimit, rightLimit]范围内的字符组成的字符串
+     *
+     * @param random     随机数来源
+     * @param len        长度(码点数量)
+     * @param leftLimit  最小码点
+     * @param rightLimit 最大码点
+     * @return 随机字符串
+     */
+    public static String str(Random random, int len, int leftLimit, int rightLimit) {
+        if (leftLimit > rightLimit) {
+            throw new IllegalArgumentException("left limit must not be greater than right limit");
+        }
+        int bound = rightLimit - leftLimit + 1;
+        if (rightLimit > Character.MAX_VALUE) {
+            StringBuilder sb = new StringBuilder(len * 2);
+            for (int i = 0; i < len; i++) {
+                sb.appendCodePoint(leftLimit + random.nextInt(bound));
+            }
+            return sb.toString();
+        }
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = (char) (leftLimit + random.nextInt(bound));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 生成由指定字符组成的字符串
+     *
+     * @param random   随机数来源
+     * @param len      长度
+     * @param alphabet 可选字符，不能为空
+     * @return 随机字符串
+     */
+    public static String str(Random random, int len, char[] alphabet) {
+        if (alphabet.length == 0) {
+            throw new IllegalArgumentException("alphabet must not be empty");
+        }
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(chars);
     }
 }
@@ -6,6 +6,9 @@ import org.springframework.util.Assert;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Reflection utilities.
@@ -14,6 +17,17 @@ import java.lang.reflect.Type;
  */
 public class ReflectionUtils {
 
+    /**
+     * Parameterized interface types keyed by implementation class, released together with the class loader.
+     */
+    private static final ClassValue<ConcurrentMap<Class<?>, Optional<ParameterizedType>>> RESOLVED_INTERFACE_TYPES =
+            new ClassValue<ConcurrentMap<Class<?>, Optional<ParameterizedType>>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, Optional<ParameterizedType>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>(4);
+                }
+            };
+
     private ReflectionUtils() {
     }
 
@@ -33,7 +47,7 @@ public class ReflectionUtils {
         for (Type genericType : genericTypes) {
             if (genericType instanceof ParameterizedType) {
                 ParameterizedType parameterizedType = (ParameterizedType) genericType;
-                if (parameterizedType.getRawType().getTypeName().equals(superType.getTypeName())) {
+                if (superType.equals(parameterizedType.getRawType())) {
                     currentType = parameterizedType;
                     break;
                 }
@@ -60,6 +74,18 @@ public class ReflectionUtils {
             return null;
         }
 
+        // Resolved once per implementation class and interface
+        Optional<ParameterizedType> resolved = RESOLVED_INTERFACE_TYPES.get(implementationClass)
+                .computeIfAbsent(interfaceType, type -> Optional.ofNullable(resolveParameterizedType(type, implementationClass)));
+        return resolved.orElse(null);
+    }
+
+    @Nullable
+    private static ParameterizedType resolveParameterizedType(Class<?> interfaceType, Class<?> implementationClass) {
+        if (implementationClass == null) {
+            return null;
+        }
+
         // Get parameterized type
         ParameterizedType currentType = getParameterizedType(interfaceType, implementationClass.getGenericInterfaces());
 
@@ -70,7 +96,7 @@ public class ReflectionUtils {
 
         Class<?> superclass = implementationClass.getSuperclass();
 
-        return getParameterizedType(interfaceType, superclass);
+        return resolveParameterizedType(interfaceType, superclass);
     }
 
     /**
@@ -7,52 +7,173 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 内存缓存的高并发适用钟摆
+ * <p>
+ * 后台线程按照固定周期刷新缓存的毫秒时间以及单调递增的{@link System#nanoTime()}，读取时只是一次volatile读。
+ * 默认实例的刷新周期为1毫秒，可以通过系统属性{@value #PERIOD_PROPERTY}(单位微秒)修改，
+ * 也可以通过{@link #create(long, TimeUnit)}创建独立周期的实例。
+ * 缓存的时间最多落后实际时间一个刷新周期，不能接受这个误差时使用{@link #getWallClock()}。
+ * 需要确定性时间的测试可以使用{@link VirtualClock}手动推进时间
  *
  * @author zido
  */
 public class SystemClock {
-    private final long period;
+    /**
+     * 默认实例刷新周期的系统属性，单位微秒
+     */
+    public static final String PERIOD_PROPERTY = "coffee.system-clock.period";
+    private static final long DEFAULT_PERIOD_MICROS = 1000;
+
     private final AtomicLong now;
+    private final AtomicLong nanoTime;
+    private final ScheduledExecutorService scheduler;
+    private final long baseMillis;
+    private final long baseNanoTime;
 
-    private SystemClock(long period) {
-        this.period = period;
+    private SystemClock(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
         this.now = new AtomicLong(System.currentTimeMillis());
-        scheduleClockUpdating();
+        this.nanoTime = new AtomicLong(System.nanoTime());
+        this.scheduler = scheduleClockUpdating(unit.toNanos(period));
+        this.baseMillis = now.get();
+        this.baseNanoTime = nanoTime.get();
     }
 
-    private static SystemClock instance() {
+    /**
+     * 不会自动刷新的时钟，由子类负责推进时间
+     *
+     * @param now      初始毫秒时间
+     * @param nanoTime 初始纳秒时间
+     */
+    protected SystemClock(long now, long nanoTime) {
+        this.now = new AtomicLong(now);
+        this.nanoTime = new AtomicLong(nanoTime);
+        this.scheduler = null;
+        this.baseMillis = now;
+        this.baseNanoTime = nanoTime;
+    }
+
+    /**
+     * @return 所有组件默认共享的实例
+     */
+    public static SystemClock getDefault() {
         return InstanceHolder.INSTANCE;
     }
 
+    /**
+     * 直接读取{@link System#currentTimeMillis()}和{@link System#nanoTime()}的时钟，没有刷新周期带来的误差
+     *
+     * @return 不缓存时间的实例
+     */
+    public static SystemClock getWallClock() {
+        return WallClock.INSTANCE;
+    }
+
+    /**
+     * 创建一个独立刷新的时钟，不再使用时需要调用{@link #shutdown()}
+     *
+     * @param period 刷新周期，可以小于1毫秒
+     * @param unit   时间单位
+     * @return clock
+     */
+    public static SystemClock create(long period, TimeUnit unit) {
+        return new SystemClock(period, unit);
+    }
+
     /**
      * Now time millis.
      *
      * @return the long
      */
     public static long now() {
-        return instance().currentTimeMillis();
+        return getDefault().currentTimeMillis();
     }
 
-    private void scheduleClockUpdating() {
+    /**
+     * 缓存的{@link System#nanoTime()}，只能用于计算时间间隔，精度为刷新周期
+     *
+     * @return nano time
+     */
+    public static long nanoTime() {
+        return getDefault().currentNanoTime();
+    }
 
+    private ScheduledExecutorService scheduleClockUpdating(long periodNanos) {
         ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1,
                 r -> {
                     Thread thread = new Thread(r, "System Clock");
                     thread.setDaemon(true);
                     return thread;
                 });
-        scheduler.scheduleAtFixedRate(() -> now.set(System.currentTimeMillis()), period, period, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(() -> {
+            now.set(System.currentTimeMillis());
+            nanoTime.set(System.nanoTime());
+        }, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        return scheduler;
     }
 
-    private long currentTimeMillis() {
+    public long currentTimeMillis() {
         return now.get();
     }
 
+    public long currentNanoTime() {
+        return nanoTime.get();
+    }
+
+    /**
+     * 推进时间，供不自动刷新的子类使用
+     *
+     * @param duration 时长
+     * @param unit     时间单位
+     */
+    protected synchronized void advanceTime(long duration, TimeUnit unit) {
+        long nanos = nanoTime.addAndGet(unit.toNanos(duration));
+        // 毫秒时间由纳秒时间推导，多次推进不足1毫秒的时长时不会丢失精度
+        now.set(baseMillis + TimeUnit.NANOSECONDS.toMillis(nanos - baseNanoTime));
+    }
+
+    /**
+     * 停止刷新，默认实例不允许停止
+     */
+    public void shutdown() {
+        if (this == InstanceHolder.INSTANCE) {
+            throw new IllegalStateException("the default clock can not be shut down");
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static class WallClock extends SystemClock {
+        static final SystemClock INSTANCE = new WallClock();
+
+        private WallClock() {
+            super(System.currentTimeMillis(), System.nanoTime());
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long currentNanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        protected void advanceTime(long duration, TimeUnit unit) {
+            throw new UnsupportedOperationException("the wall clock can not be advanced");
+        }
+    }
+
     private static class InstanceHolder {
         /**
          * The Instance.
          */
-        static final SystemClock INSTANCE = new SystemClock(1);
+        static final SystemClock INSTANCE = new SystemClock(
+                Long.getLong(PERIOD_PROPERTY, DEFAULT_PERIOD_MICROS), TimeUnit.MICROSECONDS);
     }
 
 }
@@ -0,0 +1,35 @@
+package site.zido.coffee.core.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 手动推进的时钟，用于测试过期、限流等与时间相关的逻辑，不需要{@link Thread#sleep(long)}
+ *
+ * @author zido
+ */
+public class VirtualClock extends SystemClock {
+
+    public VirtualClock() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * @param now 初始毫秒时间
+     */
+    public VirtualClock(long now) {
+        super(now, 0);
+    }
+
+    /**
+     * 推进时间
+     *
+     * @param duration 时长，不能小于0
+     * @param unit     时间单位
+     */
+    public void advance(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration can not be negative");
+        }
+        advanceTime(duration, unit);
+    }
+}
@@ -0,0 +1,266 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * 紧凑的分段实现，使用开放寻址(线性探测)的平行数组存储，不为每个数据创建节点对象
+ * <p>
+ * 过期时间保存在{@code long[]}中，{@link StorageMode#OFF_HEAP}时保存在直接内存中。
+ * 删除使用后移(backward shift)而不是墓碑，释放内存时顺序扫描过期时间数组。
+ * 超出容量时随机采样若干数据，淘汰其中最早过期的一个
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+final class CompactSegment<K, V> extends Segment<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * 直接内存按字节分配，需要保证容量*8不溢出
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 27;
+    private static final int EVICTION_SAMPLES = 5;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private final long maximum;
+    private final boolean offHeap;
+
+    private Object[] keys;
+    private Object[] values;
+    private long[] expireTimes;
+    private LongBuffer offHeapExpireTimes;
+    private int mask;
+    private int shift;
+    private int threshold;
+    private int count;
+    /**
+     * 淘汰采样的起始位置
+     */
+    private int sampleCursor;
+
+    /**
+     * @param maximum 最大数据量，小于0代表不限制
+     * @param offHeap 过期时间是否存储在直接内存中
+     */
+    CompactSegment(long maximum, boolean offHeap) {
+        this.maximum = maximum;
+        this.offHeap = offHeap;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    long expireTimeOf(K key) {
+        int i = indexOf(key);
+        return i < 0 ? ABSENT : expireTimeAt(i);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    V valueOf(K key, long now) {
+        int i = indexOf(key);
+        if (i < 0 || !isLive(expireTimeAt(i), now)) {
+            return null;
+        }
+        return (V) values[i];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void store(K key, V val, long expireTime) {
+        int i = indexOf(key);
+        if (i >= 0) {
+            if (values[i] != val) {
+                notifyRemoval(key, (V) values[i], RemovalCause.REPLACED);
+            }
+            values[i] = val;
+            setExpireTime(i, expireTime);
+            return;
+        }
+        if (maximum >= 0 && count >= maximum && count > 0) {
+            evictOne();
+        }
+        if (count >= threshold) {
+            if (keys.length >= MAXIMUM_CAPACITY) {
+                if (count >= keys.length - 1) {
+                    throw new IllegalStateException("compact segment is full");
+                }
+            } else {
+                rehash(keys.length << 1);
+            }
+        }
+        insert(key, val, expireTime);
+    }
+
+    @Override
+    boolean delete(K key, RemovalCause cause) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i, cause);
+        return true;
+    }
+
+    @Override
+    void removeExpired(long now) {
+        int i = 0;
+        while (i < keys.length) {
+            // 删除后当前位置可能被后移的数据填充，需要重新检查
+            if (keys[i] != null && !isLive(expireTimeAt(i), now)) {
+                removeAt(i, RemovalCause.EXPIRED);
+            } else {
+                i++;
+            }
+        }
+        int capacity = keys.length;
+        while (capacity > INITIAL_CAPACITY && count < capacity >>> 2) {
+            capacity >>>= 1;
+        }
+        if (capacity != keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    @Override
+    int count() {
+        return count;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void forEach(EntryConsumer<? super K, ? super V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept((K) keys[i], (V) values[i], expireTimeAt(i));
+            }
+        }
+    }
+
+    private int indexOf(Object key) {
+        int i = index(key);
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key || k.equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 同一分段中key的hash低位相同，因此使用乘法散列取高位作为下标
+     */
+    private int index(Object key) {
+        int h = key.hashCode();
+        return ((h ^ (h >>> 16)) * GOLDEN_RATIO) >>> shift;
+    }
+
+    private void insert(Object key, Object val, long expireTime) {
+        int i = index(key);
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = val;
+        setExpireTime(i, expireTime);
+        count++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeAt(int i, RemovalCause cause) {
+        notifyRemoval((K) keys[i], (V) values[i], cause);
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            Object k = keys[j];
+            if (k == null) {
+                break;
+            }
+            int home = index(k);
+            // home不在(i, j]区间内时，说明该数据可以前移到空位上
+            boolean movable = j > i ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                keys[i] = k;
+                values[i] = values[j];
+                setExpireTime(i, expireTimeAt(j));
+                i = j;
+            }
+        }
+        keys[i] = null;
+        values[i] = null;
+        count--;
+    }
+
+    /**
+     * 从采样位置开始取若干个数据，淘汰其中最早过期的一个，永久有效的数据最后淘汰
+     */
+    private void evictOne() {
+        int victim = -1;
+        long victimTime = Long.MAX_VALUE;
+        int sampled = 0;
+        int i = sampleCursor & mask;
+        for (int scanned = 0; scanned < keys.length && sampled < EVICTION_SAMPLES; scanned++) {
+            if (keys[i] != null) {
+                long expireTime = expireTimeAt(i);
+                long order = expireTime == ExpireEntry.FOREVER ? Long.MAX_VALUE : expireTime;
+                if (victim < 0 || order < victimTime) {
+                    victim = i;
+                    victimTime = order;
+                }
+                sampled++;
+            }
+            i = (i + 1) & mask;
+        }
+        sampleCursor = i;
+        if (victim >= 0) {
+            evictionCount++;
+            removeAt(victim, RemovalCause.EVICTED);
+        }
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldExpireTimes = expireTimes;
+        LongBuffer oldOffHeapExpireTimes = offHeapExpireTimes;
+        allocate(capacity);
+        count = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                long expireTime = oldOffHeapExpireTimes == null ? oldExpireTimes[i] : oldOffHeapExpireTimes.get(i);
+                insert(oldKeys[i], oldValues[i], expireTime);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        if (offHeap) {
+            // 旧的直接内存在ByteBuffer被回收时释放
+            offHeapExpireTimes = ByteBuffer.allocateDirect(capacity * Long.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asLongBuffer();
+        } else {
+            expireTimes = new long[capacity];
+        }
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        threshold = capacity - (capacity >>> 2);
+    }
+
+    private long expireTimeAt(int i) {
+        return offHeap ? offHeapExpireTimes.get(i) : expireTimes[i];
+    }
+
+    private void setExpireTime(int i, long expireTime) {
+        if (offHeap) {
+            offHeapExpireTimes.put(i, expireTime);
+        } else {
+            expireTimes[i] = expireTime;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.util.function.Consumer;
+
+/**
+ * 过期策略，负责组织所有带有过期时间的节点，并在时间推进时找出已经过期的节点
+ * <p>
+ * 每个分段持有一个独立的策略实例，所有方法都在分段的写锁内调用，实现无需考虑线程安全
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ * @see TimingWheelExpirationStrategy
+ * @see SortedExpirationStrategy
+ */
+public interface ExpirationStrategy<K, V> {
+
+    /**
+     * 加入一个需要过期的节点
+     *
+     * @param entry 节点，过期时间不为永久
+     */
+    void add(ExpireEntry<K, V> entry);
+
+    /**
+     * 移除一个已经加入的节点
+     *
+     * @param entry 节点
+     */
+    void remove(ExpireEntry<K, V> entry);
+
+    /**
+     * 推进时间，将所有过期时间小于等于now的节点移出并交给action处理
+     *
+     * @param now    当前时间
+     * @param action 过期节点处理
+     */
+    void expire(long now, Consumer<ExpireEntry<K, V>> action);
+}
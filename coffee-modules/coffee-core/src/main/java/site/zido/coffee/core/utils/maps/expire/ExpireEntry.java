@@ -0,0 +1,75 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+/**
+ * {@link ExpireMap}中的存储节点
+ * <p>
+ * 节点本身携带链表指针，供{@link ExpirationStrategy}以侵入式链表的形式组织，避免额外的包装对象
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+public final class ExpireEntry<K, V> {
+    /**
+     * 永久有效
+     */
+    static final long FOREVER = -1L;
+
+    final K key;
+    V value;
+    /**
+     * 过期时间戳，{@link #FOREVER}代表永久有效
+     */
+    long expireTime;
+
+    /**
+     * 过期策略使用的链表指针
+     */
+    ExpireEntry<K, V> prev;
+    ExpireEntry<K, V> next;
+
+    /**
+     * 容量淘汰策略使用的访问顺序指针，未限制容量时不使用
+     */
+    ExpireEntry<K, V> accessPrev;
+    ExpireEntry<K, V> accessNext;
+    /**
+     * 所在的淘汰队列
+     */
+    byte queue;
+    int weight = 1;
+
+    ExpireEntry(K key, V value, long expireTime) {
+        this.key = key;
+        this.value = value;
+        this.expireTime = expireTime;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public long getExpireTime() {
+        return expireTime;
+    }
+
+    boolean isForever() {
+        return expireTime == FOREVER;
+    }
+
+    boolean isExpired(long now) {
+        return expireTime != FOREVER && expireTime - now <= 0;
+    }
+
+    long ttl(long now) {
+        if (expireTime == FOREVER) {
+            return FOREVER;
+        }
+        long diff;
+        return (diff = expireTime - now) > 0 ? diff : 0;
+    }
+}
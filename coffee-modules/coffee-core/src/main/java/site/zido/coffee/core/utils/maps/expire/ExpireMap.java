@@ -1,17 +1,23 @@
 package site.zido.coffee.core.utils.maps.expire;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Objects;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import site.zido.coffee.core.utils.SystemClock;
 
 /**
  * 线程安全的缓存容器，过期时间单位为毫秒
@@ -21,6 +27,15 @@ import net.jcip.annotations.ThreadSafe;
  * <li>内存</li>
  * <li>线程安全</li>
  * <li>过期删除</li>
+ * <li>分段锁，不同分段之间的读写互不影响</li>
+ * <li>可替换的过期策略，默认使用分层时间轮{@link TimingWheelExpirationStrategy}</li>
+ * <li>可选的后台增量释放内存</li>
+ * <li>可选的容量限制，超出后按照W-TinyLFU淘汰</li>
+ * <li>可选的紧凑存储{@link StorageMode#COMPACT}，减少每个数据的额外内存占用</li>
+ * <li>快照，可以在重启前保存到文件并在启动后恢复</li>
+ * <li>可选的过期、淘汰等移除事件监听{@link RemovalListener}</li>
+ * <li>可替换的时钟，默认直接读取系统时间{@link SystemClock#getWallClock()}。高并发下可以换成缓存时间的{@link SystemClock#getDefault()}，
+ * 过期时间会因此最多延后一个刷新周期；测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}</li>
  * </ul>
  *
  * @param <K>
@@ -28,70 +43,161 @@ import net.jcip.annotations.ThreadSafe;
  */
 @ThreadSafe
 public class ExpireMap<K, V> {
-
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-
+    private static final Log LOGGER = LogFactory.getLog(ExpireMap.class);
     /**
-     * 计算是否过期
+     * 默认分段数
      */
-    private final SortedSet<SortedKey<K>> sortedKeys = new TreeSet<>();
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
     /**
-     * 存储存储过的需要过期的Key，用于索引SortedSet
+     * 按照key的hash值分段，每个分段独立加锁
      */
-    private final HashMap<K, SortedKey<K>> cache = new HashMap<>();
-    private final HashMap<K, V> valContainer = new HashMap<>();
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
 
     private final long releaseIntervalTime;
+    private final SystemClock clock;
 
     private final AtomicLong lastRelease;
 
+    /**
+     * 是否由后台线程释放内存
+     */
+    private final boolean backgroundRelease;
+    /**
+     * 后台释放进行到的分段下标，只在后台线程中访问
+     */
+    private int releaseCursor;
+
     public ExpireMap() {
         this(1, TimeUnit.SECONDS);
     }
 
     public ExpireMap(long releaseIntervalTime, TimeUnit unit) {
-        this.releaseIntervalTime = unit.toMillis(releaseIntervalTime);
-        lastRelease = new AtomicLong(System.currentTimeMillis());
+        this(DEFAULT_CONCURRENCY_LEVEL, releaseIntervalTime, unit);
     }
 
     /**
-     * 获取过期时间
-     *
-     * @param key key
-     * @return val
+     * @param concurrencyLevel    预估的并发写线程数，会向上取整为2的幂作为分段数
+     * @param releaseIntervalTime 内存释放间隔
+     * @param unit                时间单位
      */
-    public long ttl(K key) {
-        tickReleaseMemory();
-        SortedKey<K> val;
-        lock.readLock().lock();
-        try {
-            if ((val = cache.get(key)) == null) {
-                return 0;
-            }
-        } finally {
-            lock.readLock().unlock();
+    public ExpireMap(int concurrencyLevel, long releaseIntervalTime, TimeUnit unit) {
+        this(builder(concurrencyLevel, releaseIntervalTime, unit));
+    }
+
+    @SuppressWarnings("unchecked")
+    public ExpireMap(Builder<K, V> builder) {
+        int concurrencyLevel = builder.getConcurrencyLevel();
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrency level must be greater than 0");
+        }
+        if (builder.getExpirationStrategy() == null) {
+            throw new IllegalArgumentException("expiration strategy must not be null");
+        }
+        if (builder.getClock() == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
+        if (builder.getStorageMode() == null) {
+            throw new IllegalArgumentException("storage mode must not be null");
+        }
+        long maximum = checkMaximum(builder);
+        int size = 1;
+        while (size < concurrencyLevel && size < MAX_SEGMENTS) {
+            size <<= 1;
+        }
+        // 限制容量时保证每个分段至少能容纳一个数据
+        while (maximum >= 0 && size > 1 && size > maximum) {
+            size >>= 1;
+        }
+        long segmentMaximum = maximum < 0 ? -1 : (maximum + size - 1) / size;
+        Consumer<List<RemovalNotification<K, V>>> removalDispatcher = removalDispatcher(builder);
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            this.segments[i] = newSegment(builder, segmentMaximum);
+            this.segments[i].setRemovalDispatcher(removalDispatcher);
+        }
+        this.segmentMask = size - 1;
+        this.releaseIntervalTime = builder.getUnit().toMillis(builder.getReleaseIntervalTime());
+        this.clock = builder.getClock();
+        lastRelease = new AtomicLong(clock.currentTimeMillis());
+        this.backgroundRelease = builder.isBackgroundRelease();
+        if (backgroundRelease) {
+            ExpireMapReaper.instance().register(this);
         }
-        return returnExpireTime(val.expireTime);
     }
 
-    private long returnExpireTime(long expireTime) {
-        if (expireTime == -1) {
-            return -1;
+    private static <K, V> Segment<K, V> newSegment(Builder<K, V> builder, long maximum) {
+        switch (builder.getStorageMode()) {
+            case COMPACT:
+                return new CompactSegment<>(maximum, false);
+            case OFF_HEAP:
+                return new CompactSegment<>(maximum, true);
+            default:
+                return new LinkedSegment<>(builder.getExpirationStrategy().get(), maximum, builder.getWeigher());
         }
-        long diff;
-        return (diff = expireTime - System.currentTimeMillis()) > 0 ? diff : 0;
     }
 
-    private boolean expired(SortedKey<K> v) {
-        if (v == null) {
-            return true;
+    private static <K, V> Consumer<List<RemovalNotification<K, V>>> removalDispatcher(Builder<K, V> builder) {
+        RemovalListener<K, V> listener = builder.getRemovalListener();
+        if (listener == null) {
+            return null;
         }
-        if (v.expireTime != -1 && v.expireTime - System.currentTimeMillis() <= 0) {
-            sortedKeys.remove(v);
-            valContainer.remove(v.key);
-            return true;
+        Executor executor = builder.getRemovalExecutor();
+        if (executor == null) {
+            return notifications -> notifyRemoval(listener, notifications);
+        }
+        return notifications -> {
+            try {
+                executor.execute(() -> notifyRemoval(listener, notifications));
+            } catch (RejectedExecutionException e) {
+                // 监听不能影响读写，执行器拒绝时丢弃这一批事件
+            }
+        };
+    }
+
+    private static <K, V> void notifyRemoval(RemovalListener<K, V> listener,
+                                             List<RemovalNotification<K, V>> notifications) {
+        try {
+            listener.onRemoval(notifications);
+        } catch (RuntimeException e) {
+            LOGGER.warn("ExpireMap removal listener failed", e);
+        }
+    }
+
+    private static long checkMaximum(Builder<?, ?> builder) {
+        if (builder.getStorageMode() != StorageMode.LINKED && builder.getWeigher() != null) {
+            throw new IllegalArgumentException("compact storage does not support weigher");
+        }
+        if (builder.getMaximumSize() >= 0 && builder.getMaximumWeight() >= 0) {
+            throw new IllegalArgumentException("maximum size and maximum weight cannot be set at the same time");
         }
-        return false;
+        if (builder.getWeigher() != null && builder.getMaximumWeight() < 0) {
+            throw new IllegalArgumentException("weigher requires maximum weight");
+        }
+        if (builder.getWeigher() == null && builder.getMaximumWeight() >= 0) {
+            throw new IllegalArgumentException("maximum weight requires weigher");
+        }
+        return builder.getMaximumSize() >= 0 ? builder.getMaximumSize() : builder.getMaximumWeight();
+    }
+
+    private static <K, V> Builder<K, V> builder(int concurrencyLevel, long releaseIntervalTime, TimeUnit unit) {
+        Builder<K, V> builder = new Builder<>();
+        builder.setConcurrencyLevel(concurrencyLevel);
+        builder.setReleaseIntervalTime(releaseIntervalTime, unit);
+        return builder;
+    }
+
+    /**
+     * 获取过期时间
+     *
+     * @param key key
+     * @return val
+     */
+    public long ttl(K key) {
+        tickReleaseMemory();
+        return segmentFor(key).ttl(key, clock.currentTimeMillis());
     }
 
     /**
@@ -103,34 +209,7 @@ public class ExpireMap<K, V> {
      */
     public void set(K key, V val, long timeout) {
         tickReleaseMemory();
-        lock.writeLock().lock();
-        try {
-            cache.compute(key, put(key, val, timeout));
-        } finally {
-            lock.writeLock().unlock();
-        }
-    }
-
-    private BiFunction<K, SortedKey<K>, SortedKey<K>> put(K key, V val, long timeout) {
-        return (k, v) -> {
-            if (v != null) {
-                sortedKeys.remove(v);
-            }
-            if (timeout < 0) {
-                valContainer.put(k, val);
-                return new SortedKey<>(key, -1L);
-            }
-            // 如果timeout == 0 代表删除
-            if (timeout == 0) {
-                valContainer.remove(k);
-                return null;
-            }
-            long expireTime = timeout + System.currentTimeMillis();
-            v = new SortedKey<>(k, expireTime);
-            sortedKeys.add(v);
-            valContainer.put(k, val);
-            return v;
-        };
+        segmentFor(key).set(key, val, timeout, clock.currentTimeMillis());
     }
 
     /**
@@ -152,20 +231,7 @@ public class ExpireMap<K, V> {
      */
     public boolean setNx(K key, V val, long timeout) {
         tickReleaseMemory();
-        lock.writeLock().lock();
-        boolean[] success = new boolean[] { false };
-        try {
-            cache.compute(key, (k, v) -> {
-                if (expired(v)) {
-                    v = put(k, val, timeout).apply(k, v);
-                    success[0] = true;
-                }
-                return v;
-            });
-        } finally {
-            lock.writeLock().unlock();
-        }
-        return success[0];
+        return segmentFor(key).setNx(key, val, timeout, clock.currentTimeMillis());
     }
 
     /**
@@ -174,95 +240,538 @@ public class ExpireMap<K, V> {
      * @param key key
      * @return value
      */
-    @SuppressWarnings("unchecked")
     public V get(K key) {
         tickReleaseMemory();
-        Object[] result = new Object[] { null };
-        lock.readLock().lock();
+        return segmentFor(key).get(key, clock.currentTimeMillis());
+    }
+
+    /**
+     * 批量获取，每个分段只加锁一次
+     *
+     * @param keys keys
+     * @return 与keys顺序一致的value，不存在的为null
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> mget(List<? extends K> keys) {
+        tickReleaseMemory();
+        long now = clock.currentTimeMillis();
+        Object[] values = new Object[keys.size()];
+        long[] order = groupBySegment(keys);
+        int from = 0;
+        while (from < order.length) {
+            int to = segmentEnd(order, from);
+            segments[(int) (order[from] >>> 32)].getAll(keys, order, from, to, now, values);
+            from = to;
+        }
+        return (List<V>) Arrays.asList(values);
+    }
+
+    /**
+     * 批量设置，每个分段只加锁一次，不同分段之间不保证原子性
+     *
+     * @param entries 数据
+     * @param timeout 过期时间，小于0代表永久有效，等于0代表删除
+     */
+    public void mset(Map<? extends K, ? extends V> entries, long timeout) {
+        tickReleaseMemory();
+        long now = clock.currentTimeMillis();
+        List<K> keys = new ArrayList<>(entries.keySet());
+        List<V> values = new ArrayList<>(entries.size());
+        for (K key : keys) {
+            values.add(entries.get(key));
+        }
+        long[] order = groupBySegment(keys);
+        int from = 0;
+        while (from < order.length) {
+            int to = segmentEnd(order, from);
+            segments[(int) (order[from] >>> 32)].setAll(keys, values, order, from, to, timeout, now);
+            from = to;
+        }
+    }
+
+    /**
+     * 所有key都不存在时全部设置成功，否则都不设置
+     * <p>
+     * 会按照分段下标顺序同时锁住所有涉及的分段
+     *
+     * @param entries 数据
+     * @param timeout 过期时间，小于0代表永久有效
+     * @return 是否设置成功
+     */
+    public boolean msetNx(Map<? extends K, ? extends V> entries, long timeout) {
+        if (timeout == 0) {
+            throw new IllegalArgumentException("timeout must not be 0");
+        }
+        tickReleaseMemory();
+        long now = clock.currentTimeMillis();
+        List<K> keys = new ArrayList<>(entries.keySet());
+        long[] order = groupBySegment(keys);
+        int locked = 0;
+        int[] lockedSegments = new int[Math.min(order.length, segments.length)];
         try {
-            cache.compute(key, (k, v) -> {
-                if (expired(v)) {
-                    result[0] = null;
-                } else {
-                    result[0] = valContainer.get(k);
+            for (int i = 0; i < order.length; i++) {
+                int segment = (int) (order[i] >>> 32);
+                if (locked == 0 || lockedSegments[locked - 1] != segment) {
+                    segments[segment].lockWrite();
+                    lockedSegments[locked++] = segment;
+                }
+                K key = keys.get((int) order[i]);
+                if (Segment.isLive(segments[segment].expireTimeOf(key), now)) {
+                    return false;
                 }
-                return v;
-            });
+            }
+            for (long packed : order) {
+                K key = keys.get((int) packed);
+                segments[(int) (packed >>> 32)].put(key, entries.get(key), timeout, now);
+            }
+            return true;
         } finally {
-            lock.readLock().unlock();
+            for (int i = locked - 1; i >= 0; i--) {
+                segments[lockedSegments[i]].unlockWrite();
+            }
+        }
+    }
+
+    /**
+     * 原子地将数值增加delta，key不存在时从0开始并设置过期时间，已存在时保留原有的过期时间
+     * <p>
+     * 使用此指令时value需要为{@link Long}
+     *
+     * @param key     key
+     * @param delta   增量
+     * @param timeout key不存在时设置的过期时间，小于0代表永久有效
+     * @return 增加后的值
+     * @throws IllegalStateException 已有的值不是{@link Long}
+     * @throws ArithmeticException   数值溢出
+     */
+    public long incrBy(K key, long delta, long timeout) {
+        if (timeout == 0) {
+            throw new IllegalArgumentException("timeout must not be 0");
+        }
+        tickReleaseMemory();
+        return segmentFor(key).incrBy(key, delta, timeout, clock.currentTimeMillis());
+    }
+
+    /**
+     * 原子地将数值减少delta，其余与{@link #incrBy(Object, long, long)}相同
+     *
+     * @param key     key
+     * @param delta   减量
+     * @param timeout key不存在时设置的过期时间，小于0代表永久有效
+     * @return 减少后的值
+     */
+    public long decrBy(K key, long delta, long timeout) {
+        if (delta == Long.MIN_VALUE) {
+            throw new ArithmeticException("long overflow");
+        }
+        return incrBy(key, -delta, timeout);
+    }
+
+    /**
+     * 重新设置过期时间
+     *
+     * @param key     key
+     * @param timeout 过期时间，小于0代表永久有效，等于0代表删除
+     * @return key存在时返回true
+     */
+    public boolean expire(K key, long timeout) {
+        tickReleaseMemory();
+        return segmentFor(key).expire(key, timeout, clock.currentTimeMillis());
+    }
+
+    /**
+     * 移除过期时间，使key永久有效
+     *
+     * @param key key
+     * @return key存在且原本设置了过期时间时返回true
+     */
+    public boolean persist(K key) {
+        tickReleaseMemory();
+        return segmentFor(key).persist(key, clock.currentTimeMillis());
+    }
+
+    /**
+     * 设置新值并返回旧值
+     *
+     * @param key     key
+     * @param val     value
+     * @param timeout 过期时间，小于0代表永久有效，等于0代表删除
+     * @return 旧值，不存在时返回null
+     */
+    public V getAndSet(K key, V val, long timeout) {
+        tickReleaseMemory();
+        return segmentFor(key).getAndSet(key, val, timeout, clock.currentTimeMillis());
+    }
+
+    /**
+     * 在同一个临界区内根据旧值计算新值，计算函数中不能再访问此容器
+     * <p>
+     * 计算结果为null时删除key。key已存在时保留原有的过期时间，不存在时使用timeout
+     *
+     * @param key       key
+     * @param remapping 计算函数，key不存在时旧值为null
+     * @param timeout   key不存在时设置的过期时间，小于0代表永久有效
+     * @return 新值
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping, long timeout) {
+        tickReleaseMemory();
+        return segmentFor(key).compute(key, remapping, timeout, clock.currentTimeMillis());
+    }
+
+    /**
+     * 设置hash中的字段，key不存在时创建永久有效的hash，已存在时保留原有的过期时间
+     * <p>
+     * 使用hash指令时value需要能够接受{@link Map}
+     *
+     * @param key   key
+     * @param field 字段
+     * @param value 字段值
+     * @param <T>   字段值类型
+     * @return 字段的旧值
+     * @throws IllegalStateException 已有的值不是hash
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T hset(K key, Object field, T value) {
+        tickReleaseMemory();
+        return (T) segmentFor(key).hset(key, field, value, clock.currentTimeMillis());
+    }
+
+    /**
+     * 获取hash中的字段
+     *
+     * @param key   key
+     * @param field 字段
+     * @param <T>   字段值类型
+     * @return 字段值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T hget(K key, Object field) {
+        tickReleaseMemory();
+        return (T) segmentFor(key).hget(key, field, clock.currentTimeMillis());
+    }
+
+    /**
+     * 删除hash中的字段，字段全部删除后key也会被删除
+     *
+     * @param key   key
+     * @param field 字段
+     * @param <T>   字段值类型
+     * @return 被删除的字段值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T hdel(K key, Object field) {
+        tickReleaseMemory();
+        return (T) segmentFor(key).hdel(key, field, clock.currentTimeMillis());
+    }
+
+    /**
+     * 获取hash中所有字段的副本
+     *
+     * @param key key
+     * @return 字段，key不存在时返回空map
+     */
+    public Map<Object, Object> hgetAll(K key) {
+        tickReleaseMemory();
+        return segmentFor(key).hgetAll(key, clock.currentTimeMillis());
+    }
+
+    /**
+     * 将所有未过期的数据及其剩余过期时间保存到文件，已存在的文件会被替换
+     * <p>
+     * 每个分段只在复制引用期间持有读锁，保存期间的写入可能不会出现在快照中
+     *
+     * @param path       文件路径
+     * @param keyCodec   key编码
+     * @param valueCodec value编码
+     * @return 保存的数据量
+     * @throws IOException 写文件失败
+     */
+    public long save(Path path, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        return ExpireMapSnapshot.save(segments, path, clock.currentTimeMillis(), keyCodec, valueCodec);
+    }
+
+    /**
+     * 从{@link #save(Path, SnapshotCodec, SnapshotCodec)}保存的文件中恢复数据，会覆盖同名的key
+     * <p>
+     * 剩余过期时间会扣除保存之后经过的时间，已经过期的数据会被跳过。文件损坏时抛出异常并且不恢复任何数据
+     *
+     * @param path       文件路径
+     * @param keyCodec   key解码
+     * @param valueCodec value解码
+     * @return 恢复的数据量
+     * @throws IOException 文件不存在或者格式错误
+     */
+    public long load(Path path, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        return ExpireMapSnapshot.load(this, path, clock.currentTimeMillis(), keyCodec, valueCodec);
+    }
+
+    void restore(K key, V val, long timeout, long now) {
+        segmentFor(key).set(key, val, timeout, now);
+    }
+
+    /**
+     * 当前存储的key数量，包含已经过期但尚未释放的key
+     *
+     * @return size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
         }
-        return (V) result[0];
+        return size;
+    }
+
+    /**
+     * 因超出容量而被淘汰的数据数量
+     *
+     * @return eviction count
+     */
+    public long evictionCount() {
+        long count = 0;
+        for (Segment<K, V> segment : segments) {
+            count += segment.evictionCount();
+        }
+        return count;
     }
 
     /**
      * 调用后会选择合适的时机进行内存释放
      * <p>
-     * 防止每次执行都会使用内存释放从而导致性能下降
+     * 防止每次执行都会使用内存释放从而导致性能下降。只有抢到释放权的线程会逐个分段进行释放，
+     * 其余线程不会等待。启用后台释放时不做任何事情
      */
     public void tickReleaseMemory() {
-        long crt = System.currentTimeMillis();
-        if (crt - lastRelease.get() > releaseIntervalTime) {
-            lock.writeLock().lock();
-            try {
-                if (crt - lastRelease.get() > releaseIntervalTime) {
-                    releaseMemory();
-                }
-                lastRelease.set(System.currentTimeMillis());
-            } finally {
-                lock.writeLock().unlock();
-            }
+        if (backgroundRelease) {
+            return;
+        }
+        long crt = clock.currentTimeMillis();
+        long last = lastRelease.get();
+        if (crt - last > releaseIntervalTime && lastRelease.compareAndSet(last, crt)) {
+            releaseMemory(crt);
         }
     }
 
-    private void releaseMemory() {
-        long crt = System.currentTimeMillis();
-        Iterator<SortedKey<K>> iter = sortedKeys.iterator();
-        while (iter.hasNext()) {
-            SortedKey<K> item = iter.next();
-            if (item.expireTime <= crt) {
-                cache.compute(item.key, (k, kSortedKey) -> {
-                    iter.remove();
-                    valContainer.remove(item.key);
-                    return null;
-                });
+    private void releaseMemory(long crt) {
+        for (Segment<K, V> segment : segments) {
+            segment.releaseMemory(crt);
+        }
+    }
+
+    /**
+     * 后台增量释放，每释放完一个分段检查一次是否超出期限
+     *
+     * @param deadline 期限，{@link System#nanoTime()}
+     * @return 本轮是否已经释放完所有分段
+     */
+    boolean releaseIncrementally(long deadline) {
+        long crt = clock.currentTimeMillis();
+        if (releaseCursor == 0) {
+            if (crt - lastRelease.get() <= releaseIntervalTime) {
+                return true;
+            }
+            lastRelease.set(crt);
+        }
+        while (releaseCursor < segments.length) {
+            segments[releaseCursor++].releaseMemory(crt);
+            if (releaseCursor < segments.length && System.nanoTime() - deadline >= 0) {
+                return false;
             }
         }
+        releaseCursor = 0;
+        return true;
     }
 
-    protected static class SortedKey<K> implements Comparable<SortedKey<K>> {
+    private Segment<K, V> segmentFor(Object key) {
+        return segments[segmentIndex(key)];
+    }
+
+    private int segmentIndex(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & segmentMask;
+    }
+
+    /**
+     * 按照分段下标排序，高32位为分段下标，低32位为数据在keys中的下标
+     */
+    private long[] groupBySegment(List<?> keys) {
+        long[] order = new long[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ((long) segmentIndex(keys.get(i)) << 32) | i;
+        }
+        Arrays.sort(order);
+        return order;
+    }
+
+    private static int segmentEnd(long[] order, int from) {
+        long segment = order[from] >>> 32;
+        int to = from + 1;
+        while (to < order.length && order[to] >>> 32 == segment) {
+            to++;
+        }
+        return to;
+    }
+
+    /**
+     * 构建器
+     *
+     * @param <K> key
+     * @param <V> value
+     */
+    public static class Builder<K, V> {
+        private int concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+        private long releaseIntervalTime = 1;
+        private TimeUnit unit = TimeUnit.SECONDS;
+        private Supplier<ExpirationStrategy<K, V>> expirationStrategy;
+        private boolean backgroundRelease = false;
+        private long maximumSize = -1;
+        private long maximumWeight = -1;
+        private Weigher<? super K, ? super V> weigher;
+        private StorageMode storageMode = StorageMode.LINKED;
+        private RemovalListener<K, V> removalListener;
+        private Executor removalExecutor;
+        private SystemClock clock = SystemClock.getWallClock();
+
+        public int getConcurrencyLevel() {
+            return concurrencyLevel;
+        }
+
+        public void setConcurrencyLevel(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+        }
+
+        public long getReleaseIntervalTime() {
+            return releaseIntervalTime;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setReleaseIntervalTime(long releaseIntervalTime, TimeUnit unit) {
+            this.releaseIntervalTime = releaseIntervalTime;
+            this.unit = unit;
+        }
+
+        public Supplier<ExpirationStrategy<K, V>> getExpirationStrategy() {
+            if (expirationStrategy == null) {
+                SystemClock clock = this.clock;
+                return () -> new TimingWheelExpirationStrategy<>(1, clock);
+            }
+            return expirationStrategy;
+        }
+
+        /**
+         * 设置过期策略，每个分段都会通过此工厂创建独立的策略实例，为null时使用默认的分层时间轮
+         *
+         * @param expirationStrategy 过期策略工厂
+         */
+        public void setExpirationStrategy(Supplier<ExpirationStrategy<K, V>> expirationStrategy) {
+            this.expirationStrategy = expirationStrategy;
+        }
+
+        public boolean isBackgroundRelease() {
+            return backgroundRelease;
+        }
+
         /**
-         * 键
+         * 设置是否由所有容器共享的后台线程释放内存，开启后读写操作不会再承担释放内存的开销
+         *
+         * @param backgroundRelease 是否后台释放
          */
-        private final K key;
+        public void setBackgroundRelease(boolean backgroundRelease) {
+            this.backgroundRelease = backgroundRelease;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
         /**
-         * 过期时间戳
+         * 设置最大数据量，超出后按照W-TinyLFU淘汰，容量会平均分配到每个分段中，因此只是近似的限制
+         *
+         * @param maximumSize 最大数据量，小于0代表不限制
          */
-        private final Long expireTime;
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
 
-        public SortedKey(K key, long expireTime) {
-            this.key = key;
-            this.expireTime = expireTime;
+        public long getMaximumWeight() {
+            return maximumWeight;
         }
 
-        @Override
-        public int compareTo(SortedKey<K> o) {
-            return Long.compare(o.expireTime, expireTime);
+        /**
+         * 设置最大权重，需要同时设置{@link #setWeigher(Weigher)}，不能与{@link #setMaximumSize(long)}同时使用
+         *
+         * @param maximumWeight 最大权重，小于0代表不限制
+         */
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
         }
 
-        @Override
-        @SuppressWarnings("unchecked")
-        public boolean equals(Object o) {
-            if (this == o)
-                return true;
-            if (o == null || getClass() != o.getClass())
-                return false;
-            SortedKey<K> sortedKey = (SortedKey<K>) o;
-            return Objects.equals(key, sortedKey.key) && Objects.equals(expireTime, sortedKey.expireTime);
+        public Weigher<? super K, ? super V> getWeigher() {
+            return weigher;
+        }
+
+        public void setWeigher(Weigher<? super K, ? super V> weigher) {
+            this.weigher = weigher;
+        }
+
+        public StorageMode getStorageMode() {
+            return storageMode;
+        }
+
+        /**
+         * 设置存储方式，紧凑存储不使用{@link #setExpirationStrategy(Supplier)}设置的过期策略
+         *
+         * @param storageMode 存储方式
+         */
+        public void setStorageMode(StorageMode storageMode) {
+            this.storageMode = storageMode;
+        }
+
+        public RemovalListener<K, V> getRemovalListener() {
+            return removalListener;
+        }
+
+        /**
+         * 设置移除监听，未设置{@link #setRemovalExecutor(Executor)}时在触发移除的线程中释放锁之后同步通知
+         *
+         * @param removalListener 移除监听
+         */
+        public void setRemovalListener(RemovalListener<K, V> removalListener) {
+            this.removalListener = removalListener;
+        }
+
+        public Executor getRemovalExecutor() {
+            return removalExecutor;
+        }
+
+        /**
+         * 设置异步通知移除监听的执行器，建议使用有界的执行器，例如{@link RemovalListener#boundedExecutor(int)}，
+         * 执行器拒绝时事件会被丢弃
+         *
+         * @param removalExecutor 执行器，为null时同步通知
+         */
+        public void setRemovalExecutor(Executor removalExecutor) {
+            this.removalExecutor = removalExecutor;
+        }
+
+        public SystemClock getClock() {
+            return clock;
+        }
+
+        /**
+         * 设置时钟，所有过期时间都按照此时钟计算，默认为{@link SystemClock#getWallClock()}
+         *
+         * @param clock 时钟
+         */
+        public void setClock(SystemClock clock) {
+            this.clock = clock;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(key, expireTime);
+        public ExpireMap<K, V> build() {
+            return new ExpireMap<>(this);
         }
     }
 }
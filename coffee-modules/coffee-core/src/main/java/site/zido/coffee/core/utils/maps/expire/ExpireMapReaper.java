@@ -0,0 +1,81 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 所有{@link ExpireMap}共享的后台内存释放线程
+ * <p>
+ * 每{@value #PERIOD}毫秒执行一次，每次最多占用{@value #BUDGET_MILLIS}毫秒，以分段为单位增量释放，
+ * 时间用尽后记录位置，下一次从中断的位置继续。注册的容器以弱引用持有，不会阻止容器被回收
+ *
+ * @author zido
+ */
+final class ExpireMapReaper {
+    private static final Log LOGGER = LogFactory.getLog(ExpireMapReaper.class);
+    private static final long PERIOD = 10;
+    private static final long BUDGET_MILLIS = 1;
+
+    private final List<WeakReference<ExpireMap<?, ?>>> maps = new CopyOnWriteArrayList<>();
+    private final long budget = TimeUnit.MILLISECONDS.toNanos(BUDGET_MILLIS);
+    /**
+     * 下一次开始释放的容器下标，只在释放线程中访问
+     */
+    private int next;
+
+    private ExpireMapReaper() {
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1,
+                r -> {
+                    Thread thread = new Thread(r, "ExpireMap Reaper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        scheduler.scheduleWithFixedDelay(this::reap, PERIOD, PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    static ExpireMapReaper instance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    void register(ExpireMap<?, ?> map) {
+        maps.add(new WeakReference<>(map));
+    }
+
+    private void reap() {
+        long deadline = System.nanoTime() + budget;
+        boolean stale = false;
+        int size = maps.size();
+        for (int i = 0; i < size; i++) {
+            int index = (next + i) % size;
+            ExpireMap<?, ?> map = maps.get(index).get();
+            if (map == null) {
+                stale = true;
+                continue;
+            }
+            try {
+                if (!map.releaseIncrementally(deadline)) {
+                    next = index;
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // 异常会导致定时任务终止，单个容器的异常不能影响其他容器
+                LOGGER.error("ExpireMap reaper failed to evict expired entries", e);
+            }
+        }
+        next = 0;
+        if (stale) {
+            maps.removeIf(ref -> ref.get() == null);
+        }
+    }
+
+    private static class InstanceHolder {
+        static final ExpireMapReaper INSTANCE = new ExpireMapReaper();
+    }
+}
@@ -0,0 +1,183 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link ExpireMap}快照的读写
+ * <p>
+ * 文件格式(大端)：
+ * <pre>
+ * int magic | int version | long 保存时间 | long 数据量
+ * (long 剩余过期时间(-1代表永久) | int key长度 | key | int value长度 | value)*
+ * </pre>
+ * 写入时每个分段只在读锁中复制引用，编码和写文件都在锁外进行，先写临时文件再原子替换。
+ * 读取时使用内存映射，恢复时会扣除保存之后经过的时间
+ *
+ * @author zido
+ */
+final class ExpireMapSnapshot {
+    private static final int MAGIC = 0x43464D53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int COUNT_POSITION = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ExpireMapSnapshot() {
+    }
+
+    static <K, V> long save(Segment<K, V>[] segments, Path path, long now,
+                            SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(now).putLong(0);
+            Batch<K, V> batch = new Batch<>();
+            for (Segment<K, V> segment : segments) {
+                batch.clear();
+                segment.forEachLive(now, batch::add);
+                for (int i = 0; i < batch.size(); i++) {
+                    long expireTime = batch.expireTimes[i];
+                    long ttl = expireTime == ExpireEntry.FOREVER ? ExpireEntry.FOREVER : expireTime - now;
+                    byte[] key = keyCodec.encode(batch.keys.get(i));
+                    byte[] value = valueCodec.encode(batch.values.get(i));
+                    int length = Long.BYTES + Integer.BYTES * 2 + key.length + value.length;
+                    if (buffer.remaining() < length) {
+                        flush(channel, buffer);
+                    }
+                    if (buffer.remaining() < length) {
+                        ByteBuffer large = ByteBuffer.allocate(length);
+                        write(large, ttl, key, value);
+                        flush(channel, large);
+                    } else {
+                        write(buffer, ttl, key, value);
+                    }
+                    count++;
+                }
+            }
+            flush(channel, buffer);
+            ByteBuffer countBuffer = ByteBuffer.allocate(Long.BYTES).putLong(0, count);
+            channel.write(countBuffer, COUNT_POSITION);
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return count;
+    }
+
+    static <K, V> long load(ExpireMap<K, V> map, Path path, long now,
+                            SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("snapshot is too large: " + size);
+            }
+            if (size < HEADER_SIZE) {
+                throw new IOException("invalid snapshot: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("invalid snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported snapshot version: " + version);
+            }
+            long elapsed = Math.max(0, now - buffer.getLong());
+            long count = buffer.getLong();
+            // 先校验整个文件的结构，损坏的文件不会恢复任何数据
+            int entries = buffer.position();
+            try {
+                for (long i = 0; i < count; i++) {
+                    buffer.getLong();
+                    skip(buffer);
+                    skip(buffer);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("corrupted snapshot: " + path, e);
+            }
+            buffer.position(entries);
+            long loaded = 0;
+            try {
+                for (long i = 0; i < count; i++) {
+                    long ttl = buffer.getLong();
+                    byte[] key = new byte[buffer.getInt()];
+                    buffer.get(key);
+                    byte[] value = new byte[buffer.getInt()];
+                    buffer.get(value);
+                    if (ttl != ExpireEntry.FOREVER) {
+                        ttl -= elapsed;
+                        if (ttl <= 0) {
+                            continue;
+                        }
+                    }
+                    map.restore(keyCodec.decode(key), valueCodec.decode(value), ttl, now);
+                    loaded++;
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                throw new IOException("corrupted snapshot: " + path, e);
+            }
+            return loaded;
+        }
+    }
+
+    private static void skip(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    private static void write(ByteBuffer buffer, long ttl, byte[] key, byte[] value) {
+        buffer.putLong(ttl).putInt(key.length).put(key).putInt(value.length).put(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 在读锁中复制的一个分段的数据
+     */
+    private static final class Batch<K, V> {
+        private final List<K> keys = new ArrayList<>();
+        private final List<V> values = new ArrayList<>();
+        private long[] expireTimes = new long[16];
+
+        void add(K key, V value, long expireTime) {
+            if (keys.size() == expireTimes.length) {
+                expireTimes = Arrays.copyOf(expireTimes, expireTimes.length << 1);
+            }
+            expireTimes[keys.size()] = expireTime;
+            keys.add(key);
+            values.add(value);
+        }
+
+        int size() {
+            return keys.size();
+        }
+
+        void clear() {
+            keys.clear();
+            values.clear();
+        }
+    }
+}
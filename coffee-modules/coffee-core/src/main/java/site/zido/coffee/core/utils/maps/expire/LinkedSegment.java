@@ -0,0 +1,165 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.util.HashMap;
+
+/**
+ * 默认的分段实现，每个数据对应一个{@link ExpireEntry}节点，支持可替换的过期策略以及W-TinyLFU淘汰
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+final class LinkedSegment<K, V> extends Segment<K, V> {
+    private final HashMap<K, ExpireEntry<K, V>> table = new HashMap<>();
+    /**
+     * 计算是否过期
+     */
+    private final ExpirationStrategy<K, V> strategy;
+    /**
+     * 容量淘汰策略，未限制容量时为null
+     */
+    private final WindowTinyLfuPolicy<K, V> policy;
+    private final Weigher<? super K, ? super V> weigher;
+
+    LinkedSegment(ExpirationStrategy<K, V> strategy) {
+        this(strategy, -1, null);
+    }
+
+    /**
+     * @param strategy 过期策略
+     * @param maximum  最大容量(权重)，小于0代表不限制
+     * @param weigher  权重计算，为null时每个数据权重为1
+     */
+    LinkedSegment(ExpirationStrategy<K, V> strategy, long maximum, Weigher<? super K, ? super V> weigher) {
+        this.strategy = strategy;
+        this.policy = maximum < 0 ? null : new WindowTinyLfuPolicy<>(maximum);
+        this.weigher = weigher;
+    }
+
+    @Override
+    long expireTimeOf(K key) {
+        ExpireEntry<K, V> entry = table.get(key);
+        return entry == null ? ABSENT : entry.expireTime;
+    }
+
+    @Override
+    V valueOf(K key, long now) {
+        ExpireEntry<K, V> entry = table.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            return null;
+        }
+        if (policy != null) {
+            policy.recordRead(entry);
+        }
+        return entry.value;
+    }
+
+    @Override
+    void recordAccess(K key) {
+        if (policy != null) {
+            ExpireEntry<K, V> entry = table.get(key);
+            if (entry != null) {
+                policy.recordRead(entry);
+            }
+        }
+    }
+
+    @Override
+    void store(K key, V val, long expireTime) {
+        ExpireEntry<K, V> entry = table.get(key);
+        if (entry == null) {
+            entry = new ExpireEntry<>(key, val, expireTime);
+            table.put(key, entry);
+            if (policy != null) {
+                entry.weight = weigh(key, val);
+                policy.onAdd(entry);
+            }
+        } else {
+            if (!entry.isForever()) {
+                strategy.remove(entry);
+            }
+            if (entry.value != val) {
+                notifyRemoval(key, entry.value, RemovalCause.REPLACED);
+            }
+            entry.value = val;
+            entry.expireTime = expireTime;
+            if (policy != null) {
+                int oldWeight = entry.weight;
+                entry.weight = weigh(key, val);
+                policy.onUpdate(entry, oldWeight);
+            }
+        }
+        if (!entry.isForever()) {
+            strategy.add(entry);
+        }
+        if (policy != null) {
+            policy.evict(this::onEvicted);
+        }
+    }
+
+    @Override
+    boolean delete(K key, RemovalCause cause) {
+        ExpireEntry<K, V> old = table.remove(key);
+        if (old == null) {
+            return false;
+        }
+        notifyRemoval(old.key, old.value, cause);
+        if (!old.isForever()) {
+            strategy.remove(old);
+        }
+        if (policy != null) {
+            policy.onRemove(old);
+        }
+        return true;
+    }
+
+    @Override
+    void removeExpired(long now) {
+        strategy.expire(now, entry -> {
+            table.remove(entry.key);
+            notifyRemoval(entry.key, entry.value, RemovalCause.EXPIRED);
+            if (policy != null) {
+                policy.onRemove(entry);
+            }
+        });
+    }
+
+    @Override
+    int count() {
+        return table.size();
+    }
+
+    @Override
+    void forEach(EntryConsumer<? super K, ? super V> consumer) {
+        for (ExpireEntry<K, V> entry : table.values()) {
+            consumer.accept(entry.key, entry.value, entry.expireTime);
+        }
+    }
+
+    @Override
+    void beforeWrite() {
+        if (policy != null) {
+            policy.drainReads();
+        }
+    }
+
+    private void onEvicted(ExpireEntry<K, V> entry) {
+        table.remove(entry.key);
+        if (!entry.isForever()) {
+            strategy.remove(entry);
+        }
+        evictionCount++;
+        notifyRemoval(entry.key, entry.value, RemovalCause.EVICTED);
+    }
+
+    private int weigh(K key, V val) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weigh(key, val);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative");
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,25 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+/**
+ * 数据从{@link ExpireMap}中移除的原因
+ *
+ * @author zido
+ */
+public enum RemovalCause {
+    /**
+     * 过期
+     */
+    EXPIRED,
+    /**
+     * 超出容量被淘汰
+     */
+    EVICTED,
+    /**
+     * 主动删除
+     */
+    EXPLICIT,
+    /**
+     * 值被覆盖
+     */
+    REPLACED
+}
@@ -0,0 +1,44 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExpireMap}的数据移除监听
+ * <p>
+ * 同一个分段一次加锁期间产生的事件会合并为一批，在释放锁之后通知，监听中不会持有任何锁
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+
+    /**
+     * 数据被移除
+     *
+     * @param notifications 同一批次的移除事件
+     */
+    void onRemoval(List<RemovalNotification<K, V>> notifications);
+
+    /**
+     * 单线程的有界执行器，队列满时丢弃新的批次，保证缓慢的监听不会阻塞读写
+     *
+     * @param queueCapacity 最多排队的批次数
+     * @return executor
+     */
+    static Executor boundedExecutor(int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "ExpireMap Removal Listener");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+}
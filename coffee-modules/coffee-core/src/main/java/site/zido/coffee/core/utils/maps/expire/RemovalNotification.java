@@ -0,0 +1,37 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+/**
+ * 数据移除事件
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+public final class RemovalNotification<K, V> {
+    private final K key;
+    private final V value;
+    private final RemovalCause cause;
+
+    RemovalNotification(K key, V value, RemovalCause cause) {
+        this.key = key;
+        this.value = value;
+        this.cause = cause;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public RemovalCause getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + value + " (" + cause + ")";
+    }
+}
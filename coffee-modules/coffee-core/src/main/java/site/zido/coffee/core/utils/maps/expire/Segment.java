@@ -0,0 +1,462 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * {@link ExpireMap}的分段，每个分段持有独立的读写锁
+ * <p>
+ * 读操作只获取读锁，不会修改内部结构，过期的数据仅返回空，由写操作或者内存释放负责清理。
+ * 加锁与指令语义由此类负责，数据如何存储由子类实现
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ * @see LinkedSegment
+ * @see CompactSegment
+ */
+abstract class Segment<K, V> {
+    /**
+     * key不存在时{@link #expireTimeOf(Object)}的返回值
+     */
+    static final long ABSENT = Long.MIN_VALUE;
+
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 因超出容量而被淘汰的数量，只在写锁中修改
+     */
+    long evictionCount;
+
+    /**
+     * 移除事件的分发，未设置监听时为null
+     */
+    private Consumer<List<RemovalNotification<K, V>>> removalDispatcher;
+    /**
+     * 当前写锁期间产生的移除事件
+     */
+    private List<RemovalNotification<K, V>> pendingRemovals;
+
+    long ttl(K key, long now) {
+        lock.readLock().lock();
+        try {
+            long expireTime = expireTimeOf(key);
+            if (expireTime == ABSENT) {
+                return 0;
+            }
+            if (isLive(expireTime, now)) {
+                recordAccess(key);
+            }
+            if (expireTime == ExpireEntry.FOREVER) {
+                return -1;
+            }
+            return Math.max(0, expireTime - now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    V get(K key, long now) {
+        lock.readLock().lock();
+        try {
+            return valueOf(key, now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void set(K key, V val, long timeout, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            put(key, val, timeout, now);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    boolean setNx(K key, V val, long timeout, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            if (isLive(expireTimeOf(key), now)) {
+                // 限流等场景只通过setNx/ttl命中，同样需要计入访问频率，否则会与只出现一次的key一起被淘汰
+                recordAccess(key);
+                return false;
+            }
+            put(key, val, timeout, now);
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * 批量获取，order中[from, to)为属于当前分段的数据，低32位为数据在keys中的下标
+     */
+    void getAll(List<? extends K> keys, long[] order, int from, int to, long now, Object[] values) {
+        lock.readLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                int index = (int) order[i];
+                values[index] = valueOf(keys.get(index), now);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 批量设置，order的含义与{@link #getAll(List, long[], int, int, long, Object[])}相同
+     */
+    void setAll(List<? extends K> keys, List<? extends V> values, long[] order, int from, int to,
+                long timeout, long now) {
+        lockWrite();
+        try {
+            for (int i = from; i < to; i++) {
+                int index = (int) order[i];
+                put(keys.get(index), values.get(index), timeout, now);
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    long incrBy(K key, long delta, long timeout, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            long expireTime = expireTimeOf(key);
+            if (!isLive(expireTime, now)) {
+                put(key, cast(delta), timeout, now);
+                return delta;
+            }
+            long value = Math.addExact(toLong(valueOf(key, now)), delta);
+            store(key, cast(value), expireTime);
+            return value;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    boolean expire(K key, long timeout, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            if (!isLive(expireTimeOf(key), now)) {
+                return false;
+            }
+            if (timeout == 0) {
+                return delete(key, RemovalCause.EXPLICIT);
+            }
+            store(key, valueOf(key, now), timeout < 0 ? ExpireEntry.FOREVER : timeout + now);
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    boolean persist(K key, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            long expireTime = expireTimeOf(key);
+            if (expireTime == ExpireEntry.FOREVER || !isLive(expireTime, now)) {
+                return false;
+            }
+            store(key, valueOf(key, now), ExpireEntry.FOREVER);
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    V getAndSet(K key, V val, long timeout, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            V old = valueOf(key, now);
+            put(key, val, timeout, now);
+            return old;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping, long timeout, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            long expireTime = expireTimeOf(key);
+            boolean live = isLive(expireTime, now);
+            V val = remapping.apply(key, live ? valueOf(key, now) : null);
+            if (val == null) {
+                if (expireTime != ABSENT) {
+                    delete(key, live ? RemovalCause.EXPLICIT : RemovalCause.EXPIRED);
+                }
+            } else if (live) {
+                store(key, val, expireTime);
+            } else {
+                put(key, val, timeout, now);
+            }
+            return val;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    Object hset(K key, Object field, Object value, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            Map<Object, Object> hash = hash(key, now);
+            if (hash != null) {
+                return hash.put(field, value);
+            }
+            hash = new HashMap<>();
+            hash.put(field, value);
+            put(key, cast(hash), -1, now);
+            return null;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    Object hget(K key, Object field, long now) {
+        lock.readLock().lock();
+        try {
+            Map<Object, Object> hash = hash(key, now);
+            return hash == null ? null : hash.get(field);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Object hdel(K key, Object field, long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            Map<Object, Object> hash = hash(key, now);
+            if (hash == null) {
+                return null;
+            }
+            Object old = hash.remove(field);
+            // 与redis一致，最后一个字段删除后key也随之删除
+            if (hash.isEmpty()) {
+                delete(key, RemovalCause.EXPLICIT);
+            }
+            return old;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    Map<Object, Object> hgetAll(K key, long now) {
+        lock.readLock().lock();
+        try {
+            Map<Object, Object> hash = hash(key, now);
+            return hash == null ? Collections.emptyMap() : new HashMap<>(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在读锁中遍历所有未过期的数据
+     *
+     * @param now      当前时间
+     * @param consumer 数据处理，不能再访问此容器
+     */
+    void forEachLive(long now, EntryConsumer<? super K, ? super V> consumer) {
+        lock.readLock().lock();
+        try {
+            forEach((key, value, expireTime) -> {
+                if (isLive(expireTime, now)) {
+                    consumer.accept(key, value, expireTime);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 释放当前分段中已经过期的数据
+     *
+     * @param now 当前时间
+     */
+    void releaseMemory(long now) {
+        lock.writeLock().lock();
+        try {
+            beforeWrite();
+            removeExpired(now);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    long evictionCount() {
+        lock.readLock().lock();
+        try {
+            return evictionCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 需要在写锁中调用，timeout小于0代表永久有效，等于0代表删除
+     */
+    final void put(K key, V val, long timeout, long now) {
+        if (timeout == 0) {
+            delete(key, RemovalCause.EXPLICIT);
+            return;
+        }
+        if (removalDispatcher != null) {
+            // 覆盖尚未释放的过期数据时，对监听者而言应当是过期
+            long expireTime = expireTimeOf(key);
+            if (expireTime != ABSENT && !isLive(expireTime, now)) {
+                delete(key, RemovalCause.EXPIRED);
+            }
+        }
+        store(key, val, timeout < 0 ? ExpireEntry.FOREVER : timeout + now);
+    }
+
+    void setRemovalDispatcher(Consumer<List<RemovalNotification<K, V>>> removalDispatcher) {
+        this.removalDispatcher = removalDispatcher;
+    }
+
+    /**
+     * 记录移除事件，在写锁中调用，事件会在释放写锁后统一分发
+     */
+    final void notifyRemoval(K key, V value, RemovalCause cause) {
+        if (removalDispatcher == null) {
+            return;
+        }
+        if (pendingRemovals == null) {
+            pendingRemovals = new ArrayList<>();
+        }
+        pendingRemovals.add(new RemovalNotification<>(key, value, cause));
+    }
+
+    /**
+     * 获取写锁，用于需要同时锁住多个分段的操作
+     */
+    void lockWrite() {
+        lock.writeLock().lock();
+        beforeWrite();
+    }
+
+    void unlockWrite() {
+        List<RemovalNotification<K, V>> removals = pendingRemovals;
+        pendingRemovals = null;
+        lock.writeLock().unlock();
+        if (removals != null) {
+            removalDispatcher.accept(removals);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> hash(K key, long now) {
+        V value = valueOf(key, now);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalStateException("value of key " + key + " is not a hash");
+        }
+        return (Map<Object, Object>) value;
+    }
+
+    private long toLong(V value) {
+        if (!(value instanceof Long)) {
+            throw new IllegalStateException("value is not a long: " + value);
+        }
+        return (Long) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    static boolean isLive(long expireTime, long now) {
+        return expireTime != ABSENT && (expireTime == ExpireEntry.FOREVER || expireTime > now);
+    }
+
+    /**
+     * 获取过期时间，不存在时返回{@link #ABSENT}，可能在读锁中调用
+     */
+    abstract long expireTimeOf(K key);
+
+    /**
+     * 获取未过期的数据，可能在读锁中调用
+     */
+    abstract V valueOf(K key, long now);
+
+    /**
+     * 新增或者覆盖数据，在写锁中调用，值发生变化时记录{@link RemovalCause#REPLACED}
+     *
+     * @param expireTime 过期时间点，{@link ExpireEntry#FOREVER}代表永久有效
+     */
+    abstract void store(K key, V val, long expireTime);
+
+    /**
+     * 删除数据，在写锁中调用
+     *
+     * @param cause 删除原因
+     * @return 是否存在
+     */
+    abstract boolean delete(K key, RemovalCause cause);
+
+    /**
+     * 删除已经过期的数据，在写锁中调用
+     */
+    abstract void removeExpired(long now);
+
+    abstract int count();
+
+    /**
+     * 遍历所有数据，包含已经过期但尚未释放的数据，可能在读锁中调用
+     */
+    abstract void forEach(EntryConsumer<? super K, ? super V> consumer);
+
+    /**
+     * 命中未过期的数据但没有读取值时调用，用于容量淘汰的访问统计，可能在读锁中调用
+     */
+    void recordAccess(K key) {
+    }
+
+    /**
+     * 每次获取写锁后调用
+     */
+    void beforeWrite() {
+    }
+
+    /**
+     * 数据遍历
+     */
+    @FunctionalInterface
+    interface EntryConsumer<K, V> {
+        /**
+         * @param expireTime 过期时间点，{@link ExpireEntry#FOREVER}代表永久有效
+         */
+        void accept(K key, V value, long expireTime);
+    }
+}
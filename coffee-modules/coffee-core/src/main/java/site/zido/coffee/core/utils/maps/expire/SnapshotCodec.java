@@ -0,0 +1,107 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ExpireMap}快照中key和value的编解码
+ *
+ * @param <T> 类型
+ * @author zido
+ */
+public interface SnapshotCodec<T> {
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+
+    /**
+     * UTF-8字符串
+     */
+    static SnapshotCodec<String> string() {
+        return new SnapshotCodec<String>() {
+            @Override
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * 8字节的{@link Long}，适用于{@link ExpireMap#incrBy(Object, long, long)}产生的计数
+     */
+    static SnapshotCodec<Long> longs() {
+        return new SnapshotCodec<Long>() {
+            @Override
+            public byte[] encode(Long value) {
+                return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+            }
+
+            @Override
+            public Long decode(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        };
+    }
+
+    /**
+     * 不保存内容，恢复时统一使用给定的值，适用于只关心key是否存在的场景
+     *
+     * @param value 恢复时使用的值
+     */
+    static <T> SnapshotCodec<T> constant(T value) {
+        return new SnapshotCodec<T>() {
+            @Override
+            public byte[] encode(T ignored) {
+                return new byte[0];
+            }
+
+            @Override
+            public T decode(byte[] bytes) {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * java序列化，体积和速度都不如专用的编解码，仅作为兜底
+     */
+    static <T extends Serializable> SnapshotCodec<T> serializable() {
+        return new SnapshotCodec<T>() {
+            @Override
+            public byte[] encode(T value) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T decode(byte[] bytes) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) in.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+}
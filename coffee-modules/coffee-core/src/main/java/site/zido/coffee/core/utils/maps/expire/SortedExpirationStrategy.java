@@ -0,0 +1,67 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * 基于有序树的过期策略
+ * <p>
+ * 按照过期时间升序存储，过期时间相同的节点以链表串联。释放内存时从最早过期的节点开始，遇到未过期的节点即停止。
+ * 加入和移除的复杂度为O(log n)
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+public class SortedExpirationStrategy<K, V> implements ExpirationStrategy<K, V> {
+    private final TreeMap<Long, ExpireEntry<K, V>> sorted = new TreeMap<>();
+
+    @Override
+    public void add(ExpireEntry<K, V> entry) {
+        ExpireEntry<K, V> head = sorted.get(entry.expireTime);
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        sorted.put(entry.expireTime, entry);
+    }
+
+    @Override
+    public void remove(ExpireEntry<K, V> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.next != null) {
+            sorted.put(entry.expireTime, entry.next);
+        } else {
+            sorted.remove(entry.expireTime, entry);
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    @Override
+    public void expire(long now, Consumer<ExpireEntry<K, V>> action) {
+        Iterator<Map.Entry<Long, ExpireEntry<K, V>>> iter = sorted.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Long, ExpireEntry<K, V>> item = iter.next();
+            if (item.getKey() > now) {
+                break;
+            }
+            iter.remove();
+            ExpireEntry<K, V> entry = item.getValue();
+            while (entry != null) {
+                ExpireEntry<K, V> next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                action.accept(entry);
+                entry = next;
+            }
+        }
+    }
+}
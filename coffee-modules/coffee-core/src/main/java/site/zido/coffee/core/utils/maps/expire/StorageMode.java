@@ -0,0 +1,22 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+/**
+ * {@link ExpireMap}的数据存储方式
+ *
+ * @author zido
+ */
+public enum StorageMode {
+    /**
+     * 每个数据对应一个{@link ExpireEntry}节点，支持可替换的过期策略以及W-TinyLFU淘汰
+     */
+    LINKED,
+    /**
+     * 开放寻址的平行数组，过期时间存储在{@code long[]}中，不为每个数据创建节点对象。
+     * 释放内存时顺序扫描整个分段，超出容量时淘汰采样数据中最早过期的一个，不支持权重
+     */
+    COMPACT,
+    /**
+     * 与{@link #COMPACT}相同，但过期时间存储在直接内存中
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,152 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮过期策略
+ * <p>
+ * 共{@value #LEVELS}层时间轮，每层{@value #WHEEL_SIZE}个槽，第n层每个槽跨越64<sup>n</sup>个tick，超出范围的节点放入溢出槽。
+ * 节点按照距当前时间的长短放入对应层的槽中，时间推进到某个槽时，槽内已过期的节点直接移出，未过期的节点降级到更精确的层中。
+ * <p>
+ * 加入与移除都为O(1)，每次推进只访问经过的槽，每个节点最多被降级{@value #LEVELS}次，因此过期的均摊复杂度为O(1)，
+ * 不会因为存储的总数量增加而拉长单次释放的停顿时间
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+public class TimingWheelExpirationStrategy<K, V> implements ExpirationStrategy<K, V> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    /**
+     * 每个槽为一个带哨兵节点的双向循环链表，最后一层为只有一个槽的溢出层
+     */
+    private final ExpireEntry<K, V>[][] wheels;
+    /**
+     * 上次推进到的tick
+     */
+    private long currentTicks;
+
+    public TimingWheelExpirationStrategy() {
+        this(1);
+    }
+
+    /**
+     * @param tickMillis 时间轮最小刻度，单位毫秒
+     */
+    public TimingWheelExpirationStrategy(long tickMillis) {
+        this(tickMillis, SystemClock.getWallClock());
+    }
+
+    /**
+     * @param tickMillis 时间轮最小刻度，单位毫秒
+     * @param clock      时钟，用于确定时间轮的初始位置，需要与容器使用的时钟一致
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheelExpirationStrategy(long tickMillis, SystemClock clock) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tick must be greater than 0");
+        }
+        this.tickMillis = tickMillis;
+        this.wheels = new ExpireEntry[LEVELS + 1][];
+        for (int i = 0; i < LEVELS; i++) {
+            wheels[i] = newBuckets(WHEEL_SIZE);
+        }
+        wheels[LEVELS] = newBuckets(1);
+        this.currentTicks = clock.currentTimeMillis() / tickMillis;
+    }
+
+    @Override
+    public void add(ExpireEntry<K, V> entry) {
+        ExpireEntry<K, V> sentinel = findBucket(entry.expireTime / tickMillis);
+        entry.next = sentinel;
+        entry.prev = sentinel.prev;
+        sentinel.prev.next = entry;
+        sentinel.prev = entry;
+    }
+
+    @Override
+    public void remove(ExpireEntry<K, V> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    @Override
+    public void expire(long now, Consumer<ExpireEntry<K, V>> action) {
+        long previousTicks = currentTicks;
+        long nowTicks = now / tickMillis;
+        if (nowTicks <= previousTicks) {
+            return;
+        }
+        currentTicks = nowTicks;
+        for (int level = 0; level <= LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            long previous = previousTicks >>> shift;
+            long delta = (nowTicks >>> shift) - previous;
+            if (delta <= 0) {
+                break;
+            }
+            expire(level, previous, delta, now, action);
+        }
+    }
+
+    private void expire(int level, long previous, long delta, long now, Consumer<ExpireEntry<K, V>> action) {
+        ExpireEntry<K, V>[] buckets = wheels[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previous & mask);
+        int end = start + steps;
+        for (int i = start; i < end; i++) {
+            ExpireEntry<K, V> sentinel = buckets[i & mask];
+            ExpireEntry<K, V> node = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != sentinel) {
+                ExpireEntry<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (node.expireTime - now <= 0) {
+                    action.accept(node);
+                } else {
+                    add(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private ExpireEntry<K, V> findBucket(long ticks) {
+        long duration = ticks - currentTicks;
+        if (duration <= 0) {
+            return wheels[0][(int) (currentTicks & (WHEEL_SIZE - 1))];
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (duration < 1L << (WHEEL_BITS * (level + 1))) {
+                int index = (int) ((ticks >>> (WHEEL_BITS * level)) & (WHEEL_SIZE - 1));
+                return wheels[level][index];
+            }
+        }
+        return wheels[LEVELS][0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private ExpireEntry<K, V>[] newBuckets(int size) {
+        ExpireEntry<K, V>[] buckets = new ExpireEntry[size];
+        for (int i = 0; i < size; i++) {
+            ExpireEntry<K, V> sentinel = new ExpireEntry<>(null, null, ExpireEntry.FOREVER);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            buckets[i] = sentinel;
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,21 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+/**
+ * 计算{@link ExpireMap}中每个数据的权重，用于按权重限制容量
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * 计算权重
+     *
+     * @param key   key
+     * @param value value
+     * @return 权重，不能为负数
+     */
+    int weigh(K key, V value);
+}
@@ -0,0 +1,224 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * W-TinyLFU容量淘汰策略
+ * <p>
+ * 新数据首先进入占总容量1%的窗口LRU，被挤出窗口后进入主区域的试用队列。主区域按照SLRU组织，
+ * 试用队列中再次被访问的数据晋升到占主区域80%的保护队列。超出容量时，在试用队列中最久未访问的数据与最新进入的数据之间，
+ * 根据{@link FrequencySketch}估算的访问频率淘汰频率较低的一方，使大量只出现一次的key无法挤掉热点数据。
+ * <p>
+ * 除{@link #recordRead}外，所有方法都在分段的写锁内调用。读操作只在读锁内将节点写入有损的环形缓冲区，
+ * 由下一次写操作统一回放
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author zido
+ */
+final class WindowTinyLfuPolicy<K, V> {
+    static final byte NONE = 0;
+    static final byte WINDOW = 1;
+    static final byte PROBATION = 2;
+    static final byte PROTECTED = 3;
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long weightedSize;
+    private long windowWeightedSize;
+    private long protectedWeightedSize;
+    private long count;
+
+    private final AccessQueue<K, V> window = new AccessQueue<>();
+    private final AccessQueue<K, V> probation = new AccessQueue<>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+    private final FrequencySketch sketch;
+
+    private final AtomicReferenceArray<ExpireEntry<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicInteger readIndex = new AtomicInteger();
+
+    WindowTinyLfuPolicy(long maximum) {
+        this.maximum = maximum;
+        this.windowMaximum = Math.max(1, maximum / 100);
+        this.protectedMaximum = (maximum - windowMaximum) * 8 / 10;
+        this.sketch = new FrequencySketch();
+    }
+
+    /**
+     * 记录一次读取，缓冲区满时覆盖旧的记录
+     *
+     * @param entry 节点
+     */
+    void recordRead(ExpireEntry<K, V> entry) {
+        readBuffer.lazySet(readIndex.getAndIncrement() & READ_BUFFER_MASK, entry);
+    }
+
+    void drainReads() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            ExpireEntry<K, V> entry = readBuffer.getAndSet(i, null);
+            if (entry != null && entry.queue != NONE) {
+                onAccess(entry);
+            }
+        }
+    }
+
+    void onAdd(ExpireEntry<K, V> entry) {
+        if (++count > sketch.capacity()) {
+            sketch.ensureCapacity(Math.min(maximum, count << 1));
+        }
+        sketch.increment(entry.key);
+        entry.queue = WINDOW;
+        window.addLast(entry);
+        windowWeightedSize += entry.weight;
+        weightedSize += entry.weight;
+    }
+
+    void onUpdate(ExpireEntry<K, V> entry, int oldWeight) {
+        int delta = entry.weight - oldWeight;
+        weightedSize += delta;
+        if (entry.queue == WINDOW) {
+            windowWeightedSize += delta;
+        } else if (entry.queue == PROTECTED) {
+            protectedWeightedSize += delta;
+        }
+        onAccess(entry);
+    }
+
+    void onAccess(ExpireEntry<K, V> entry) {
+        sketch.increment(entry.key);
+        switch (entry.queue) {
+            case WINDOW:
+                window.moveToLast(entry);
+                break;
+            case PROBATION:
+                probation.remove(entry);
+                entry.queue = PROTECTED;
+                protectedQueue.addLast(entry);
+                protectedWeightedSize += entry.weight;
+                demoteFromProtected();
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(entry);
+                break;
+            default:
+                break;
+        }
+    }
+
+    void onRemove(ExpireEntry<K, V> entry) {
+        switch (entry.queue) {
+            case WINDOW:
+                window.remove(entry);
+                windowWeightedSize -= entry.weight;
+                break;
+            case PROBATION:
+                probation.remove(entry);
+                break;
+            case PROTECTED:
+                protectedQueue.remove(entry);
+                protectedWeightedSize -= entry.weight;
+                break;
+            default:
+                return;
+        }
+        weightedSize -= entry.weight;
+        count--;
+        entry.queue = NONE;
+    }
+
+    /**
+     * 淘汰超出容量的数据
+     *
+     * @param action 被淘汰节点的处理，调用时节点已经移出策略
+     */
+    void evict(Consumer<ExpireEntry<K, V>> action) {
+        while (windowWeightedSize > windowMaximum && !window.isEmpty()) {
+            ExpireEntry<K, V> entry = window.pollFirst();
+            windowWeightedSize -= entry.weight;
+            entry.queue = PROBATION;
+            probation.addLast(entry);
+        }
+        while (weightedSize > maximum) {
+            ExpireEntry<K, V> victim = probation.peekFirst();
+            ExpireEntry<K, V> candidate = probation.peekLast();
+            ExpireEntry<K, V> evicted;
+            if (victim == null) {
+                evicted = !protectedQueue.isEmpty() ? protectedQueue.peekFirst() : window.peekFirst();
+            } else if (victim == candidate) {
+                evicted = victim;
+            } else {
+                evicted = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+            }
+            onRemove(evicted);
+            action.accept(evicted);
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (protectedWeightedSize > protectedMaximum && !protectedQueue.isEmpty()) {
+            ExpireEntry<K, V> entry = protectedQueue.pollFirst();
+            protectedWeightedSize -= entry.weight;
+            entry.queue = PROBATION;
+            probation.addLast(entry);
+        }
+    }
+
+    /**
+     * 以节点的访问顺序指针串联的双向循环链表，头部为最久未访问的节点
+     */
+    private static final class AccessQueue<K, V> {
+        private final ExpireEntry<K, V> sentinel = new ExpireEntry<>(null, null, ExpireEntry.FOREVER);
+
+        AccessQueue() {
+            sentinel.accessPrev = sentinel;
+            sentinel.accessNext = sentinel;
+        }
+
+        boolean isEmpty() {
+            return sentinel.accessNext == sentinel;
+        }
+
+        ExpireEntry<K, V> peekFirst() {
+            return isEmpty() ? null : sentinel.accessNext;
+        }
+
+        ExpireEntry<K, V> peekLast() {
+            return isEmpty() ? null : sentinel.accessPrev;
+        }
+
+        ExpireEntry<K, V> pollFirst() {
+            ExpireEntry<K, V> first = peekFirst();
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+
+        void addLast(ExpireEntry<K, V> entry) {
+            entry.accessNext = sentinel;
+            entry.accessPrev = sentinel.accessPrev;
+            sentinel.accessPrev.accessNext = entry;
+            sentinel.accessPrev = entry;
+        }
+
+        void remove(ExpireEntry<K, V> entry) {
+            entry.accessPrev.accessNext = entry.accessNext;
+            entry.accessNext.accessPrev = entry.accessPrev;
+            entry.accessPrev = null;
+            entry.accessNext = null;
+        }
+
+        void moveToLast(ExpireEntry<K, V> entry) {
+            if (sentinel.accessPrev != entry) {
+                remove(entry);
+                addLast(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.BeanUtils;
+import site.zido.coffee.core.utils.BeanUtilsException;
+import site.zido.coffee.core.utils.InputConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class BeanUtilsTest {
+
+    @Test
+    public void testTransformFrom() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("zido");
+        user.setAge(18);
+        user.setTags("a,b");
+        UserDTO dto = BeanUtils.transformFrom(user, UserDTO.class);
+        Assert.assertNotNull(dto);
+        Assert.assertEquals(Long.valueOf(1), dto.getId());
+        Assert.assertEquals("zido", dto.getName());
+        Assert.assertEquals(18, dto.getAge());
+        // 类型不兼容的属性不复制
+        Assert.assertNull(dto.getTags());
+        Assert.assertNull(BeanUtils.transformFrom(null, UserDTO.class));
+    }
+
+    @Test
+    public void testUpdatePropertiesSkipsNull() {
+        UserDTO dto = new UserDTO();
+        dto.setName("new");
+        User user = new User();
+        user.setId(1L);
+        user.setName("old");
+        user.setAge(20);
+        BeanUtils.updateProperties(dto, user);
+        Assert.assertEquals(Long.valueOf(1), user.getId());
+        Assert.assertEquals("new", user.getName());
+        // 基本类型属性始终有值
+        Assert.assertEquals(Integer.valueOf(0), user.getAge());
+    }
+
+    @Test
+    public void testTransformFromInBatch() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            User user = new User();
+            user.setId((long) i);
+            users.add(user);
+        }
+        users.add(null);
+        for (int threshold : new int[]{0, 1}) {
+            List<UserDTO> dtos = BeanUtils.transformFromInBatch(users, UserDTO.class, threshold);
+            Assert.assertEquals(users.size(), dtos.size());
+            for (int i = 0; i < 5000; i++) {
+                Assert.assertEquals(Long.valueOf(i), dtos.get(i).getId());
+            }
+            Assert.assertNull(dtos.get(5000));
+        }
+        Assert.assertTrue(BeanUtils.transformFromInBatch(Collections.emptyList(), UserDTO.class).isEmpty());
+    }
+
+    @Test
+    public void testTransformFromInBatchOnCallingThread() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < BeanUtils.DEFAULT_PARALLEL_THRESHOLD * 2; i++) {
+            users.add(new ThreadRecordingUser());
+        }
+        String caller = Thread.currentThread().getName();
+        for (UserDTO dto : BeanUtils.transformFromInBatch(users, UserDTO.class)) {
+            Assert.assertEquals(caller, dto.getName());
+        }
+    }
+
+    @Test
+    public void testObjectToMapAndBack() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("zido");
+        Map<String, Object> map = BeanUtils.objectToMap(user);
+        Assert.assertNotNull(map);
+        Assert.assertEquals(4, map.size());
+        Assert.assertFalse(map.containsKey("class"));
+        Assert.assertEquals("zido", map.get("name"));
+        Assert.assertTrue(map.containsKey("age"));
+        Assert.assertNull(map.get("age"));
+
+        User restored = (User) BeanUtils.mapToObject(map, User.class);
+        Assert.assertEquals(Long.valueOf(1), restored.getId());
+        Assert.assertEquals("zido", restored.getName());
+        Assert.assertNull(BeanUtils.objectToMap(null));
+    }
+
+    @Test
+    public void testInputConverter() {
+        UserParams params = new UserParams();
+        params.setName("zido");
+        for (int i = 0; i < 2; i++) {
+            User user = params.convertTo();
+            Assert.assertEquals("zido", user.getName());
+        }
+        User user = new User();
+        user.setId(1L);
+        params.update(user);
+        Assert.assertEquals(Long.valueOf(1), user.getId());
+        Assert.assertEquals("zido", user.getName());
+        Assert.assertEquals("zido", new ChildUserParams("zido").convertTo().getName());
+    }
+
+    @Test(expected = BeanUtilsException.class)
+    public void testTransformWithoutDefaultConstructor() {
+        BeanUtils.transformFrom(new User(), NoDefaultConstructor.class);
+    }
+
+    public static class User {
+        private Long id;
+        private String name;
+        private Integer age;
+        private String tags;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        public String getTags() {
+            return tags;
+        }
+
+        public void setTags(String tags) {
+            this.tags = tags;
+        }
+    }
+
+    public static class ThreadRecordingUser extends User {
+        @Override
+        public String getName() {
+            return Thread.currentThread().getName();
+        }
+    }
+
+    public static class UserDTO {
+        private Long id;
+        private String name;
+        private int age;
+        private String[] tags;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public String[] getTags() {
+            return tags;
+        }
+
+        public void setTags(String[] tags) {
+            this.tags = tags;
+        }
+    }
+
+    public static class NoDefaultConstructor {
+        public NoDefaultConstructor(String name) {
+        }
+    }
+
+    public static class UserParams implements InputConverter<User> {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class ChildUserParams extends UserParams {
+        public ChildUserParams(String name) {
+            setName(name);
+        }
+    }
+}
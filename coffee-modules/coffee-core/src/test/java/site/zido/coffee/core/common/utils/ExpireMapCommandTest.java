@@ -0,0 +1,116 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ExpireMapCommandTest {
+
+    @Test
+    public void testIncrByKeepsFirstTimeout() throws InterruptedException {
+        ExpireMap<String, Object> map = new ExpireMap<>();
+        Assert.assertEquals(1, map.incrBy("counter", 1, 1000));
+        Thread.sleep(20);
+        Assert.assertEquals(3, map.incrBy("counter", 2, 60 * 1000));
+        Assert.assertTrue(map.ttl("counter") <= 1000);
+        Assert.assertEquals(2, map.decrBy("counter", 1, 1000));
+        map.set("text", "a");
+        try {
+            map.incrBy("text", 1, 1000);
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void testConcurrentIncrBy() throws InterruptedException {
+        ExpireMap<String, Object> map = new ExpireMap<>();
+        int threads = 8;
+        int times = 1000;
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < times; i++) {
+                    map.incrBy("counter", 1, 60 * 1000);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        Assert.assertEquals((long) threads * times, map.get("counter"));
+    }
+
+    @Test
+    public void testExpireAndPersist() {
+        ExpireMap<String, String> map = new ExpireMap<>();
+        Assert.assertFalse(map.expire("user", 1000));
+        map.set("user", "1", 1000);
+        Assert.assertTrue(map.persist("user"));
+        Assert.assertEquals(-1, map.ttl("user"));
+        Assert.assertFalse(map.persist("user"));
+        Assert.assertTrue(map.expire("user", 60 * 1000));
+        Assert.assertTrue(map.ttl("user") > 1000);
+        Assert.assertTrue(map.expire("user", 0));
+        Assert.assertNull(map.get("user"));
+    }
+
+    @Test
+    public void testGetAndSetAndCompute() {
+        ExpireMap<String, String> map = new ExpireMap<>();
+        Assert.assertNull(map.getAndSet("user", "1", 1000));
+        Assert.assertEquals("1", map.getAndSet("user", "2", -1));
+        Assert.assertEquals(-1, map.ttl("user"));
+        Assert.assertEquals("2a", map.compute("user", (k, v) -> v + "a", 1000));
+        Assert.assertEquals(-1, map.ttl("user"));
+        Assert.assertNull(map.compute("user", (k, v) -> null, 1000));
+        Assert.assertNull(map.get("user"));
+        Assert.assertEquals("new", map.compute("user", (k, v) -> v == null ? "new" : v, 1000));
+        Assert.assertTrue(map.ttl("user") > 0);
+    }
+
+    @Test
+    public void testHash() {
+        ExpireMap<String, Object> map = new ExpireMap<>();
+        Assert.assertNull(map.hset("phone", "code", "1234"));
+        Assert.assertNull(map.hset("phone", "attempts", 1));
+        Assert.assertEquals("1234", map.hset("phone", "code", "5678"));
+        Assert.assertEquals("5678", map.<String>hget("phone", "code"));
+        Assert.assertEquals(2, map.hgetAll("phone").size());
+        Assert.assertEquals(Integer.valueOf(1), map.<Integer>hdel("phone", "attempts"));
+        map.hdel("phone", "code");
+        Assert.assertNull(map.get("phone"));
+        Assert.assertTrue(map.hgetAll("phone").isEmpty());
+    }
+
+    @Test
+    public void testBulk() {
+        ExpireMap<String, String> map = new ExpireMap<>();
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        map.mset(entries, 60 * 1000);
+        List<String> values = map.mget(Arrays.asList("key3", "missing", "key99", "key3"));
+        Assert.assertEquals(Arrays.asList("value3", null, "value99", "value3"), values);
+
+        Map<String, String> conflict = new HashMap<>();
+        conflict.put("new1", "1");
+        conflict.put("key5", "5");
+        Assert.assertFalse(map.msetNx(conflict, 1000));
+        Assert.assertNull(map.get("new1"));
+        conflict.remove("key5");
+        conflict.put("new2", "2");
+        Assert.assertTrue(map.msetNx(conflict, 1000));
+        Assert.assertEquals(Arrays.asList("1", "2"), map.mget(Arrays.asList("new1", "new2")));
+    }
+}
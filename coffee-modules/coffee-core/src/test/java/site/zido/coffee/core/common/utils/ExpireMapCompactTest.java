@@ -0,0 +1,73 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+
+import java.util.concurrent.TimeUnit;
+
+public class ExpireMapCompactTest {
+
+    private static ExpireMap<String, Integer> compact(StorageMode mode, long maximumSize) {
+        ExpireMap.Builder<String, Integer> builder = new ExpireMap.Builder<>();
+        builder.setConcurrencyLevel(4);
+        builder.setReleaseIntervalTime(10, TimeUnit.MILLISECONDS);
+        builder.setStorageMode(mode);
+        builder.setMaximumSize(maximumSize);
+        return builder.build();
+    }
+
+    @Test
+    public void testSetGetDelete() {
+        for (StorageMode mode : new StorageMode[]{StorageMode.COMPACT, StorageMode.OFF_HEAP}) {
+            ExpireMap<String, Integer> map = compact(mode, -1);
+            int keys = 10000;
+            for (int i = 0; i < keys; i++) {
+                map.set("key" + i, i, 60 * 1000);
+            }
+            Assert.assertEquals(keys, map.size());
+            // 删除一半后其余数据仍然可以通过探测找到
+            for (int i = 0; i < keys; i += 2) {
+                map.set("key" + i, i, 0);
+            }
+            Assert.assertEquals(keys / 2, map.size());
+            for (int i = 0; i < keys; i++) {
+                if (i % 2 == 0) {
+                    Assert.assertNull(map.get("key" + i));
+                } else {
+                    Assert.assertEquals(Integer.valueOf(i), map.get("key" + i));
+                }
+            }
+            map.set("forever", 1);
+            Assert.assertEquals(-1, map.ttl("forever"));
+            Assert.assertFalse(map.setNx("forever", 2, 1000));
+        }
+    }
+
+    @Test
+    public void testExpiredKeysAreReleased() throws InterruptedException {
+        ExpireMap<String, Integer> map = compact(StorageMode.OFF_HEAP, -1);
+        for (int i = 0; i < 1000; i++) {
+            map.set("key" + i, i, 20);
+        }
+        map.set("forever", 1);
+        Thread.sleep(40);
+        Assert.assertNull(map.get("key1"));
+        Assert.assertEquals(0, map.ttl("key1"));
+        map.tickReleaseMemory();
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals(Integer.valueOf(1), map.get("forever"));
+    }
+
+    @Test
+    public void testMaximumSize() {
+        ExpireMap<String, Integer> map = compact(StorageMode.COMPACT, 400);
+        for (int i = 0; i < 10000; i++) {
+            map.set("key" + i, i, 60 * 1000);
+        }
+        Assert.assertTrue(map.size() <= 400);
+        Assert.assertEquals(10000 - map.size(), map.evictionCount());
+        Assert.assertEquals(Integer.valueOf(9999), map.get("key9999"));
+    }
+}
@@ -0,0 +1,81 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExpireMapConcurrentTest {
+
+    @Test
+    public void testSetNxOnlyOneWinnerPerKey() throws InterruptedException {
+        ExpireMap<String, Integer> map = new ExpireMap<>(8, 1, TimeUnit.SECONDS);
+        int threads = 8;
+        int keys = 1000;
+        AtomicInteger success = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < keys; i++) {
+                        if (map.setNx("key" + i, id, 60 * 1000)) {
+                            success.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await();
+        executor.shutdown();
+        Assert.assertEquals(keys, success.get());
+        Assert.assertEquals(keys, map.size());
+        for (int i = 0; i < keys; i++) {
+            Assert.assertNotNull(map.get("key" + i));
+        }
+    }
+
+    @Test
+    public void testExpiredKeyIsInvisible() throws InterruptedException {
+        ExpireMap<String, String> map = new ExpireMap<>(4, 10, TimeUnit.MILLISECONDS);
+        map.set("user", "1", 20);
+        Assert.assertEquals("1", map.get("user"));
+        Thread.sleep(40);
+        Assert.assertNull(map.get("user"));
+        Assert.assertEquals(0, map.ttl("user"));
+        Assert.assertTrue(map.setNx("user", "2", 1000));
+        Assert.assertEquals("2", map.get("user"));
+    }
+
+    @Test
+    public void testBackgroundRelease() throws InterruptedException {
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setReleaseIntervalTime(10, TimeUnit.MILLISECONDS);
+        builder.setBackgroundRelease(true);
+        ExpireMap<String, String> map = builder.build();
+        for (int i = 0; i < 100; i++) {
+            map.set("key" + i, "value", 20);
+        }
+        map.set("forever", "value");
+        Assert.assertEquals(101, map.size());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (map.size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals("value", map.get("forever"));
+    }
+}
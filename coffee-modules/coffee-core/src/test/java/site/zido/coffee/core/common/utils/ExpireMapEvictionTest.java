@@ -0,0 +1,54 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+public class ExpireMapEvictionTest {
+
+    @Test
+    public void testMaximumSize() {
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setMaximumSize(100);
+        ExpireMap<String, String> map = builder.build();
+        for (int i = 0; i < 1000; i++) {
+            map.set("key" + i, "value", 60 * 1000);
+        }
+        Assert.assertTrue(map.size() <= 100 + 16);
+        Assert.assertEquals(1000 - map.size(), map.evictionCount());
+    }
+
+    @Test
+    public void testFrequentKeysSurviveFlood() {
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setConcurrencyLevel(1);
+        builder.setMaximumSize(200);
+        ExpireMap<String, String> map = builder.build();
+        for (int i = 0; i < 20; i++) {
+            map.set("hot" + i, "value", 60 * 1000);
+        }
+        for (int round = 0; round < 10000; round++) {
+            // 每次写入都会回放之前的读取记录
+            map.get("hot" + (round % 20));
+            map.set("flood" + round, "value", 60 * 1000);
+        }
+        for (int i = 0; i < 20; i++) {
+            Assert.assertNotNull("hot" + i, map.get("hot" + i));
+        }
+        Assert.assertEquals(200, map.size());
+    }
+
+    @Test
+    public void testMaximumWeight() {
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setConcurrencyLevel(1);
+        builder.setMaximumWeight(100);
+        builder.setWeigher((key, value) -> value.length());
+        ExpireMap<String, String> map = builder.build();
+        for (int i = 0; i < 100; i++) {
+            map.set("key" + i, "0123456789");
+        }
+        Assert.assertEquals(10, map.size());
+        Assert.assertEquals(90, map.evictionCount());
+    }
+}
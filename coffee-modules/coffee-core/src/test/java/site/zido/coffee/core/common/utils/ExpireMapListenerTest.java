@@ -0,0 +1,67 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+import site.zido.coffee.core.utils.maps.expire.RemovalCause;
+import site.zido.coffee.core.utils.maps.expire.RemovalListener;
+import site.zido.coffee.core.utils.maps.expire.RemovalNotification;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ExpireMapListenerTest {
+
+    @Test
+    public void testSyncListener() throws InterruptedException {
+        for (StorageMode mode : StorageMode.values()) {
+            List<RemovalNotification<String, String>> removed = new CopyOnWriteArrayList<>();
+            ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+            builder.setConcurrencyLevel(1);
+            builder.setReleaseIntervalTime(10, TimeUnit.MILLISECONDS);
+            builder.setStorageMode(mode);
+            builder.setMaximumSize(2);
+            builder.setRemovalListener(removed::addAll);
+            ExpireMap<String, String> map = builder.build();
+
+            map.set("a", "1", 1000);
+            map.set("a", "2", 1000);
+            assertLast(removed, "a", "1", RemovalCause.REPLACED);
+            map.set("a", null, 0);
+            assertLast(removed, "a", "2", RemovalCause.EXPLICIT);
+            map.set("b", "1", 10);
+            Thread.sleep(30);
+            map.tickReleaseMemory();
+            assertLast(removed, "b", "1", RemovalCause.EXPIRED);
+            map.set("c", "1");
+            map.set("d", "1");
+            map.set("e", "1");
+            Assert.assertEquals(RemovalCause.EVICTED, removed.get(removed.size() - 1).getCause());
+        }
+    }
+
+    @Test
+    public void testAsyncListener() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(100);
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setRemovalListener(notifications -> notifications.forEach(n -> latch.countDown()));
+        builder.setRemovalExecutor(RemovalListener.boundedExecutor(1024));
+        ExpireMap<String, String> map = builder.build();
+        for (int i = 0; i < 100; i++) {
+            map.set("key" + i, "value");
+            map.set("key" + i, null, 0);
+        }
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void assertLast(List<RemovalNotification<String, String>> removed,
+                                   String key, String value, RemovalCause cause) {
+        RemovalNotification<String, String> last = removed.get(removed.size() - 1);
+        Assert.assertEquals(key, last.getKey());
+        Assert.assertEquals(value, last.getValue());
+        Assert.assertEquals(cause, last.getCause());
+    }
+}
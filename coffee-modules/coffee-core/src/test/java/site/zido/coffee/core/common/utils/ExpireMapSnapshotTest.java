@@ -0,0 +1,70 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+import site.zido.coffee.core.utils.maps.expire.SnapshotCodec;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ExpireMapSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSaveAndLoad() throws IOException, InterruptedException {
+        ExpireMap<String, String> map = new ExpireMap<>();
+        for (int i = 0; i < 10000; i++) {
+            map.set("key" + i, "value" + i, 60 * 1000);
+        }
+        map.set("forever", "value");
+        map.set("short", "value", 20);
+        Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        Assert.assertEquals(10002, map.save(path, SnapshotCodec.string(), SnapshotCodec.string()));
+        Thread.sleep(40);
+
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setStorageMode(StorageMode.COMPACT);
+        ExpireMap<String, String> restored = builder.build();
+        Assert.assertEquals(10001, restored.load(path, SnapshotCodec.string(), SnapshotCodec.string()));
+        Assert.assertEquals("value42", restored.get("key42"));
+        long ttl = restored.ttl("key42");
+        Assert.assertTrue(ttl > 0 && ttl < 60 * 1000);
+        Assert.assertEquals(-1, restored.ttl("forever"));
+        Assert.assertNull(restored.get("short"));
+    }
+
+    @Test
+    public void testLoadTruncatedFile() throws IOException {
+        ExpireMap<String, String> map = new ExpireMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.set("key" + i, "value" + i, 60 * 1000);
+        }
+        Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        map.save(path, SnapshotCodec.string(), SnapshotCodec.string());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        ExpireMap<String, String> restored = new ExpireMap<>();
+        try {
+            restored.load(path, SnapshotCodec.string(), SnapshotCodec.string());
+            Assert.fail("truncated snapshot must be rejected");
+        } catch (IOException expected) {
+            //ok
+        }
+        Assert.assertEquals(0, restored.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalidFile() throws IOException {
+        Path path = folder.newFile("invalid").toPath();
+        Files.write(path, new byte[64]);
+        new ExpireMap<String, String>().load(path, SnapshotCodec.string(), SnapshotCodec.string());
+    }
+}
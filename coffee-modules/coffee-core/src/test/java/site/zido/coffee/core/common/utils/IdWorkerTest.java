@@ -0,0 +1,101 @@
+package site.zido.coffee.core.common.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.IdWorker;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class IdWorkerTest {
+
+    @Test
+    public void testUniqueUnderContention() throws InterruptedException {
+        assertUnique(new IdWorker(1, 1));
+    }
+
+    @Test
+    public void testThreadBlockUnique() throws InterruptedException {
+        assertUnique(new IdWorker(1, 1, 64));
+    }
+
+    @Test
+    public void testNextIds() {
+        IdWorker idWorker = new IdWorker(1, 1);
+        long[] ids = idWorker.nextIds(10000);
+        for (int i = 1; i < ids.length; i++) {
+            Assert.assertTrue(ids[i] > ids[i - 1]);
+        }
+        Assert.assertTrue(idWorker.next() > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void testCustomLayout() {
+        IdWorker.Builder builder = new IdWorker.Builder();
+        builder.setDataCenterIdBits(0);
+        builder.setWorkerIdBits(6);
+        builder.setSequenceBits(16);
+        builder.setEpoch(System.currentTimeMillis() - 1000);
+        builder.setWorkerId(63);
+        builder.setRequiredIdsPerMillis(50000);
+        IdWorker idWorker = builder.build();
+        Assert.assertEquals(65536, idWorker.getMaxIdsPerMillis());
+        long id = idWorker.next();
+        Assert.assertEquals(63, (id >>> 16) & 63);
+        // 时间戳只占用了很少的位数
+        Assert.assertTrue(id >>> 22 < 10000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLayout() {
+        IdWorker.Builder builder = new IdWorker.Builder();
+        builder.setSequenceBits(13);
+        builder.build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThroughputCeiling() {
+        IdWorker.Builder builder = new IdWorker.Builder();
+        builder.setWorkerId(1);
+        builder.setDataCenterId(1);
+        builder.setRequiredIdsPerMillis(10000);
+        builder.build();
+    }
+
+    private static void assertUnique(IdWorker idWorker) throws InterruptedException {
+        int threads = 8;
+        int times = 20000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            executor.execute(() -> {
+                try {
+                    long last = 0;
+                    for (int i = 0; i < times; i++) {
+                        long next = id % 2 == 0 ? idWorker.next() : idWorker.nextWithSync();
+                        Assert.assertTrue(next > last);
+                        last = next;
+                        ids.add(next);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+        if (failure.get() != null) {
+            throw new AssertionError("id generation failed in worker thread", failure.get());
+        }
+        Assert.assertEquals(threads * times, ids.size());
+    }
+}
@@ -3,13 +3,64 @@ package site.zido.coffee.core.common.utils;
 import org.junit.Assert;
 import org.junit.Test;
 import site.zido.coffee.core.utils.SystemClock;
+import site.zido.coffee.core.utils.VirtualClock;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+import java.util.concurrent.TimeUnit;
 
 public class SystemClockTest {
     @Test
     public void testClock() throws InterruptedException {
         long now = SystemClock.now();
+        long nanoTime = SystemClock.nanoTime();
         Thread.sleep(20);
         long last = SystemClock.now();
         Assert.assertNotEquals(now, last);
+        Assert.assertTrue(SystemClock.nanoTime() - nanoTime > 0);
+    }
+
+    @Test
+    public void testCustomPeriod() throws InterruptedException {
+        SystemClock clock = SystemClock.create(100, TimeUnit.MICROSECONDS);
+        try {
+            long nanoTime = clock.currentNanoTime();
+            Thread.sleep(5);
+            Assert.assertTrue(clock.currentNanoTime() - nanoTime >= TimeUnit.MILLISECONDS.toNanos(1));
+        } finally {
+            clock.shutdown();
+        }
+    }
+
+    @Test
+    public void testWallClock() {
+        SystemClock clock = SystemClock.getWallClock();
+        long before = System.currentTimeMillis();
+        long now = clock.currentTimeMillis();
+        Assert.assertTrue(now >= before && now <= System.currentTimeMillis());
+        long nanoTime = System.nanoTime();
+        Assert.assertTrue(clock.currentNanoTime() - nanoTime >= 0);
+        Assert.assertSame(clock, new ExpireMap.Builder<String, String>().getClock());
+    }
+
+    @Test
+    public void testVirtualClock() {
+        VirtualClock clock = new VirtualClock(0);
+        for (int i = 0; i < 4; i++) {
+            clock.advance(250, TimeUnit.MICROSECONDS);
+        }
+        Assert.assertEquals(1, clock.currentTimeMillis());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1), clock.currentNanoTime());
+
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setReleaseIntervalTime(0, TimeUnit.MILLISECONDS);
+        ExpireMap<String, String> map = builder.build();
+        map.set("key", "value", 1000);
+        clock.advance(999, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, map.ttl("key"));
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        Assert.assertNull(map.get("key"));
+        map.tickReleaseMemory();
+        Assert.assertEquals(0, map.size());
     }
 }
@@ -0,0 +1,67 @@
+package site.zido.coffee.core.utils.maps.expire;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TimingWheelExpirationStrategyTest {
+
+    @Test
+    public void testExpireAcrossLevels() {
+        TimingWheelExpirationStrategy<String, String> wheel = new TimingWheelExpirationStrategy<>();
+        long base = System.currentTimeMillis();
+        ExpireEntry<String, String> near = new ExpireEntry<>("near", "", base + 5);
+        ExpireEntry<String, String> middle = new ExpireEntry<>("middle", "", base + 5000);
+        ExpireEntry<String, String> far = new ExpireEntry<>("far", "", base + 10L * 24 * 3600 * 1000);
+        wheel.add(near);
+        wheel.add(middle);
+        wheel.add(far);
+
+        List<String> expired = new ArrayList<>();
+        wheel.expire(base + 4, entry -> expired.add(entry.key));
+        Assert.assertTrue(expired.isEmpty());
+        wheel.expire(base + 5, entry -> expired.add(entry.key));
+        Assert.assertEquals("near", expired.remove(0));
+        wheel.expire(base + 4999, entry -> expired.add(entry.key));
+        Assert.assertTrue(expired.isEmpty());
+        wheel.expire(base + 6000, entry -> expired.add(entry.key));
+        Assert.assertEquals("middle", expired.remove(0));
+
+        wheel.remove(far);
+        wheel.expire(base + 20L * 24 * 3600 * 1000, entry -> expired.add(entry.key));
+        Assert.assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void testEveryEntryExpiresOnTime() {
+        TimingWheelExpirationStrategy<Integer, String> wheel = new TimingWheelExpirationStrategy<>();
+        long base = System.currentTimeMillis();
+        Random random = new Random(42);
+        int count = 10000;
+        long[] expireTimes = new long[count];
+        for (int i = 0; i < count; i++) {
+            expireTimes[i] = base + 1 + random.nextInt(300000);
+            wheel.add(new ExpireEntry<>(i, "", expireTimes[i]));
+        }
+        int[] expired = {0};
+        long now = base;
+        while (expired[0] < count) {
+            now += 1 + random.nextInt(2000);
+            long current = now;
+            wheel.expire(current, entry -> {
+                Assert.assertTrue(entry.expireTime <= current);
+                Assert.assertEquals(expireTimes[entry.key], entry.expireTime);
+                expired[0]++;
+            });
+            for (int i = 0; i < count; i++) {
+                if (expireTimes[i] <= current) {
+                    expireTimes[i] = -expireTimes[i];
+                }
+            }
+        }
+        Assert.assertEquals(count, expired[0]);
+    }
+}
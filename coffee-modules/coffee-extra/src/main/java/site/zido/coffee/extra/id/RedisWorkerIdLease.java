@@ -0,0 +1,219 @@
+package site.zido.coffee.extra.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisConnectionUtils;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.IdWorker;
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redis租约分配{@link IdWorker}的机器id和数据中心id
+ * <p>
+ * 启动时从随机位置开始依次尝试{@code SET key owner NX PX ttl}占用一个槽位，槽位数量为数据中心id与机器id位数之和可以表示的数量
+ * (默认1024)，槽位的高位作为数据中心id，低位作为机器id。占用成功后定时续约，续约时校验持有者，销毁时释放槽位。
+ * <p>
+ * 租约只在最后一次成功占用或续约之后的租约时间内有效，{@link #getIdWorker()}返回的生成器在租约失效期间拒绝生成id
+ * (抛出{@link IllegalStateException})，避免槽位被其他节点占用后生成重复的id。
+ * 续约失败(例如redis长时间不可用导致租约过期)后每个续约周期都会尝试重新占用原槽位，成功后恢复生成
+ *
+ * @author zido
+ */
+public class RedisWorkerIdLease implements InitializingBean, DisposableBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisWorkerIdLease.class);
+    private static final String DEFAULT_PREFIX = "coffee:id-worker:";
+    private static final Charset USE_CHARSET = StandardCharsets.UTF_8;
+    private static final String RENEW_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+    private static final String DEL_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+    private static final byte[] RENEW_SCRIPT_BYTES = RENEW_SCRIPT.getBytes(USE_CHARSET);
+    private static final byte[] DEL_SCRIPT_BYTES = DEL_SCRIPT.getBytes(USE_CHARSET);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final IdWorker.Builder builder;
+    private String prefix = DEFAULT_PREFIX;
+    private long leaseTime = TimeUnit.SECONDS.toMillis(30);
+    private final byte[] owner = UUID.randomUUID().toString().getBytes(USE_CHARSET);
+    private ScheduledExecutorService scheduler;
+    private volatile long slot = -1;
+    /**
+     * 租约的有效期限({@link SystemClock#nanoTime()})，从发起占用或续约的时刻开始计算，不会晚于redis中的过期时间
+     */
+    private volatile long validUntil;
+    private volatile boolean released;
+    private IdWorker idWorker;
+
+    /**
+     * 使用默认的id布局
+     *
+     * @param connectionFactory redis连接
+     */
+    public RedisWorkerIdLease(RedisConnectionFactory connectionFactory) {
+        this(connectionFactory, new IdWorker.Builder());
+    }
+
+    /**
+     * @param connectionFactory redis连接
+     * @param builder           id布局，其中的机器id和数据中心id会被租约结果覆盖
+     */
+    public RedisWorkerIdLease(RedisConnectionFactory connectionFactory, IdWorker.Builder builder) {
+        this.connectionFactory = connectionFactory;
+        this.builder = builder;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(connectionFactory, "connection factory can not be null");
+        Assert.notNull(builder, "id worker builder can not be null");
+        Assert.hasLength(prefix, "prefix can not be empty");
+        Assert.isTrue(leaseTime > 0, "lease time must be greater than 0");
+        int bits = builder.getDataCenterIdBits() + builder.getWorkerIdBits();
+        Assert.isTrue(bits > 0 && bits < 31, "data center id bits and worker id bits must be between 1 and 30");
+        long slots = 1L << bits;
+        long start = ThreadLocalRandom.current().nextLong(slots);
+        for (long i = 0; i < slots; i++) {
+            long candidate = (start + i) % slots;
+            long acquireStart = SystemClock.nanoTime();
+            if (tryAcquire(candidate)) {
+                slot = candidate;
+                validUntil = acquireStart + TimeUnit.MILLISECONDS.toNanos(leaseTime);
+                break;
+            }
+        }
+        if (slot < 0) {
+            throw new IllegalStateException("no free worker id slot in " + slots + " slots with prefix " + prefix);
+        }
+        builder.setDataCenterId(slot >>> builder.getWorkerIdBits());
+        builder.setWorkerId(slot & ~(-1L << builder.getWorkerIdBits()));
+        builder.setGuard(this::isValid);
+        idWorker = builder.build();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "id-worker-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(leaseTime / 3, 1);
+        scheduler.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+        LOGGER.info("leased id worker slot {}: dataCenterId={}, workerId={}",
+                slot, idWorker.getDataCenterId(), idWorker.getWorkerId());
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (slot < 0) {
+            return;
+        }
+        released = true;
+        RedisConnection connection = RedisConnectionUtils.getConnection(connectionFactory);
+        try {
+            connection.eval(DEL_SCRIPT_BYTES, ReturnType.INTEGER, 1, slotKey(slot), owner);
+        } finally {
+            RedisConnectionUtils.releaseConnection(connection, connectionFactory, false);
+        }
+    }
+
+    private boolean tryAcquire(long candidate) {
+        RedisConnection connection = RedisConnectionUtils.getConnection(connectionFactory);
+        try {
+            Boolean result = connection.set(slotKey(candidate), owner,
+                    Expiration.milliseconds(leaseTime), RedisStringCommands.SetOption.SET_IF_ABSENT);
+            return Boolean.TRUE.equals(result);
+        } finally {
+            RedisConnectionUtils.releaseConnection(connection, connectionFactory, false);
+        }
+    }
+
+    private void renew() {
+        long start = SystemClock.nanoTime();
+        try {
+            Long result;
+            RedisConnection connection = RedisConnectionUtils.getConnection(connectionFactory);
+            try {
+                result = connection.eval(RENEW_SCRIPT_BYTES, ReturnType.INTEGER, 1,
+                        slotKey(slot), owner, String.valueOf(leaseTime).getBytes(USE_CHARSET));
+            } finally {
+                RedisConnectionUtils.releaseConnection(connection, connectionFactory, false);
+            }
+            if (result != null && result == 1) {
+                validUntil = start + TimeUnit.MILLISECONDS.toNanos(leaseTime);
+                return;
+            }
+            // 租约已过期，原槽位空闲时重新占用
+            if (tryAcquire(slot)) {
+                validUntil = start + TimeUnit.MILLISECONDS.toNanos(leaseTime);
+                LOGGER.warn("id worker slot {} expired and has been acquired again", slot);
+            } else {
+                validUntil = start;
+                LOGGER.error("id worker slot {} has been taken by another node, id generation is suspended", slot);
+            }
+        } catch (Exception e) {
+            // 不修改有效期限，租约时间内没有续约成功则自然失效
+            LOGGER.warn("renew id worker slot " + slot + " failed", e);
+        }
+    }
+
+    private byte[] slotKey(long slot) {
+        return (prefix + slot).getBytes(USE_CHARSET);
+    }
+
+    /**
+     * @return 使用租约得到的机器id和数据中心id构建的id生成器
+     */
+    public IdWorker getIdWorker() {
+        Assert.state(idWorker != null, "lease not acquired; call afterPropertiesSet() before using it");
+        return idWorker;
+    }
+
+    /**
+     * @return 占用的槽位，未占用时为-1
+     */
+    public long getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return 当前是否仍然持有租约
+     */
+    public boolean isValid() {
+        return slot >= 0 && !released && validUntil - SystemClock.nanoTime() > 0;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    /**
+     * 设置租约时间，每隔三分之一租约时间续约一次
+     *
+     * @param leaseTime 租约时间
+     * @param unit      时间单位
+     */
+    public void setLeaseTime(long leaseTime, TimeUnit unit) {
+        this.leaseTime = unit.toMillis(leaseTime);
+    }
+}
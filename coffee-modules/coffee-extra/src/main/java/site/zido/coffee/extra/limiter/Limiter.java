@@ -18,4 +18,25 @@ public @interface Limiter {
     long timeout() default 55;
 
     TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * 每秒允许的请求数量，大于0时按照{@link #algorithm()}限流({@link RateLimiter})，忽略{@link #timeout()}
+     *
+     * @return rate
+     */
+    double rate() default 0;
+
+    /**
+     * 允许的突发请求数量，小于等于0时取rate向上取整
+     *
+     * @return burst
+     */
+    long burst() default 0;
+
+    /**
+     * 设置了{@link #rate()}时使用的限流算法
+     *
+     * @return algorithm
+     */
+    LimiterAlgorithm algorithm() default LimiterAlgorithm.TOKEN_BUCKET;
 }
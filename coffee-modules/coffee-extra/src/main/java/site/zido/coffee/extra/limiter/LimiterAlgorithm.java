@@ -0,0 +1,29 @@
+package site.zido.coffee.extra.limiter;
+
+/**
+ * 速率限制算法，参数均为{@link Limiter#rate()}与{@link Limiter#burst()}
+ *
+ * @author zido
+ * @see RateLimiter
+ */
+public enum LimiterAlgorithm {
+    /**
+     * 令牌桶，按照rate连续恢复许可，最多累积burst个
+     */
+    TOKEN_BUCKET,
+    /**
+     * 滑动窗口计数器，窗口大小为burst/rate秒，窗口内最多burst个请求。
+     * 只保存当前与上一个窗口的计数，上一个窗口按照重叠比例加权，是近似值
+     */
+    SLIDING_WINDOW_COUNTER,
+    /**
+     * 滑动窗口日志，与{@link #SLIDING_WINDOW_COUNTER}窗口相同，但是保存窗口内每个请求的时间，结果精确，
+     * 每个key需要保存burst个时间
+     */
+    SLIDING_WINDOW_LOG,
+    /**
+     * 通用信元速率算法，效果与{@link #TOKEN_BUCKET}相同，每个key只保存一个理论到达时间，
+     * 拒绝时返回精确的等待时间
+     */
+    GCRA
+}
@@ -21,6 +21,10 @@ public class LimiterException extends RuntimeException {
      * 下次需要的时间
      */
     private long requireTime;
+    /**
+     * 剩余时间(毫秒)，{@link #last}为向上取整的秒数
+     */
+    private long lastMillis;
 
     public LimiterException() {
 
@@ -31,6 +35,12 @@ public class LimiterException extends RuntimeException {
         this.key = key;
         this.last = last;
         this.requireTime = requireTime;
+        this.lastMillis = last * 1000;
+    }
+
+    public LimiterException(Object key, long last, long requireTime, long lastMillis) {
+        this(key, last, requireTime);
+        this.lastMillis = lastMillis;
     }
 
     public Object getKey() {
@@ -45,6 +55,10 @@ public class LimiterException extends RuntimeException {
         return requireTime;
     }
 
+    public long getLastMillis() {
+        return lastMillis;
+    }
+
     public void setKey(Object key) {
         this.key = key;
     }
@@ -56,4 +70,8 @@ public class LimiterException extends RuntimeException {
     public void setRequireTime(long requireTime) {
         this.requireTime = requireTime;
     }
+
+    public void setLastMillis(long lastMillis) {
+        this.lastMillis = lastMillis;
+    }
 }
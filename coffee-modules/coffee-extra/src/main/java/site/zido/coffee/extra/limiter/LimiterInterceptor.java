@@ -25,6 +25,8 @@ import org.springframework.util.StringUtils;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -39,6 +41,7 @@ public class LimiterInterceptor extends AbstractLimiterInvoker implements Method
     private final ConcurrentHashMap<String, Expression> caches = new ConcurrentHashMap<>(3);
     private LimiterOperationSource limiterOperationSource;
     private FrequencyLimiter limiter;
+    private final Map<LimiterAlgorithm, RateLimiter> rateLimiters = new EnumMap<>(LimiterAlgorithm.class);
     private BeanFactory factory;
 
     @Override
@@ -60,11 +63,19 @@ public class LimiterInterceptor extends AbstractLimiterInvoker implements Method
                 long timeout = operation.getTimeout();
                 TimeUnit unit = operation.getUnit();
                 try {
-                    long lastTimeout = limiter.tryGet(key, unit.toMillis(timeout));
+                    long lastTimeout;
+                    if (operation.getRate() > 0) {
+                        RateLimiter rateLimiter = rateLimiters.get(operation.getAlgorithm());
+                        Assert.state(rateLimiter != null, "no rate limiter found for algorithm " + operation.getAlgorithm());
+                        lastTimeout = rateLimiter.tryAcquire(key, operation.getRate(), operation.getBurst());
+                        timeout = (long) Math.ceil(operation.getBurst() / operation.getRate());
+                    } else {
+                        lastTimeout = limiter.tryGet(key, unit.toMillis(timeout));
+                    }
                     if (lastTimeout > 0) {
-                        lastTimeout = lastTimeout / 1000;
-                        LOGGER.debug("限制行为{}#{} , remain: {}", targetClass.getName(), method.getName(), lastTimeout);
-                        getErrorHandler().handleOnLimited(new LimiterException(key, lastTimeout, timeout));
+                        LOGGER.debug("限制行为{}#{} , remain: {}ms", targetClass.getName(), method.getName(), lastTimeout);
+                        //不足一秒按一秒提示
+                        getErrorHandler().handleOnLimited(new LimiterException(key, (lastTimeout + 999) / 1000, timeout, lastTimeout));
                         return null;
                     }
                 } catch (RuntimeException e) {
@@ -112,6 +123,22 @@ public class LimiterInterceptor extends AbstractLimiterInvoker implements Method
         this.limiter = limiter;
     }
 
+    public Map<LimiterAlgorithm, RateLimiter> getRateLimiters() {
+        return rateLimiters;
+    }
+
+    /**
+     * 同一个算法有多个限流器时使用排在前面的
+     *
+     * @param rateLimiters rate limiters
+     */
+    public void setRateLimiters(Collection<? extends RateLimiter> rateLimiters) {
+        this.rateLimiters.clear();
+        for (RateLimiter rateLimiter : rateLimiters) {
+            this.rateLimiters.putIfAbsent(rateLimiter.getAlgorithm(), rateLimiter);
+        }
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
         Assert.state(getLimiterOperationSource() != null, "The 'limiterOperationSources' property is required: " +
@@ -7,12 +7,18 @@ public class LimiterOperation {
     private final long timeout;
     private final TimeUnit unit;
     private final String name;
+    private final double rate;
+    private final long burst;
+    private final LimiterAlgorithm algorithm;
 
     public LimiterOperation(Builder builder) {
         this.key = builder.getKey();
         this.timeout = builder.getTimeout();
         this.unit = builder.getUnit();
         name = builder.getName();
+        this.rate = builder.getRate();
+        this.burst = builder.getBurst() > 0 ? builder.getBurst() : Math.max(1, (long) Math.ceil(rate));
+        this.algorithm = builder.getAlgorithm();
     }
 
     public String getKey() {
@@ -31,11 +37,26 @@ public class LimiterOperation {
         return name;
     }
 
+    public double getRate() {
+        return rate;
+    }
+
+    public long getBurst() {
+        return burst;
+    }
+
+    public LimiterAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
     public static class Builder {
         private String key = "";
         private long timeout = 55;
         private TimeUnit unit = TimeUnit.SECONDS;
         private String name = "";
+        private double rate;
+        private long burst;
+        private LimiterAlgorithm algorithm = LimiterAlgorithm.TOKEN_BUCKET;
 
         public String getKey() {
             return key;
@@ -73,5 +94,29 @@ public class LimiterOperation {
         public void setName(String name) {
             this.name = name;
         }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public long getBurst() {
+            return burst;
+        }
+
+        public void setBurst(long burst) {
+            this.burst = burst;
+        }
+
+        public LimiterAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(LimiterAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
     }
 }
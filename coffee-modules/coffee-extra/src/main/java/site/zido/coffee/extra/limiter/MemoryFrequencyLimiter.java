@@ -1,22 +1,80 @@
 package site.zido.coffee.extra.limiter;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import site.zido.coffee.core.utils.SystemClock;
 import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+import site.zido.coffee.core.utils.maps.expire.SnapshotCodec;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * 基于内存的频率限制
+ * <p>
+ * 默认最多保存{@value #DEFAULT_MAXIMUM_SIZE}个key，超出后按照W-TinyLFU淘汰，防止大量不同的key耗尽内存。
+ * key数量非常多时可以使用{@link StorageMode#COMPACT}减少内存占用。
+ * 设置{@link #setSnapshotPath(Path)}后，会在销毁时保存快照，并在初始化时恢复，避免重启后限流状态丢失
  *
  * @author zido
  */
-public class MemoryFrequencyLimiter implements FrequencyLimiter {
+public class MemoryFrequencyLimiter implements FrequencyLimiter, InitializingBean, DisposableBean {
+    public static final long DEFAULT_MAXIMUM_SIZE = 1_000_000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemoryFrequencyLimiter.class);
     private static final Object PRESENT = new Object();
-    private final ExpireMap<String, Object> expireMap = new ExpireMap<>();
+    private final ExpireMap<String, Object> expireMap;
     private String prefix = "";
+    private Path snapshotPath;
 
     public MemoryFrequencyLimiter() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     */
+    public MemoryFrequencyLimiter(long maximumSize) {
+        this(maximumSize, StorageMode.LINKED);
+    }
 
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     * @param storageMode 存储方式
+     */
+    public MemoryFrequencyLimiter(long maximumSize, StorageMode storageMode) {
+        this(maximumSize, storageMode, SystemClock.getWallClock());
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     * @param storageMode 存储方式
+     * @param clock       时钟，测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}
+     */
+    public MemoryFrequencyLimiter(long maximumSize, StorageMode storageMode, SystemClock clock) {
+        ExpireMap.Builder<String, Object> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(maximumSize);
+        builder.setStorageMode(storageMode);
+        this.expireMap = builder.build();
     }
 
     public MemoryFrequencyLimiter(String prefix) {
+        this();
+        this.prefix = prefix;
+    }
+
+    public MemoryFrequencyLimiter(String prefix, long maximumSize) {
+        this(maximumSize);
+        this.prefix = prefix;
+    }
+
+    public MemoryFrequencyLimiter(String prefix, long maximumSize, StorageMode storageMode) {
+        this(maximumSize, storageMode);
         this.prefix = prefix;
     }
 
@@ -34,6 +92,66 @@ public class MemoryFrequencyLimiter implements FrequencyLimiter {
         return ttl;
     }
 
+    /**
+     * 因超出容量而被淘汰的key数量
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return expireMap.evictionCount();
+    }
+
+    /**
+     * 保存快照
+     *
+     * @param path 文件路径
+     * @return 保存的key数量
+     * @throws IOException 写文件失败
+     */
+    public long save(Path path) throws IOException {
+        return expireMap.save(path, SnapshotCodec.string(), SnapshotCodec.constant(PRESENT));
+    }
+
+    /**
+     * 从快照中恢复
+     *
+     * @param path 文件路径
+     * @return 恢复的key数量
+     * @throws IOException 文件不存在或者格式错误
+     */
+    public long load(Path path) throws IOException {
+        return expireMap.load(path, SnapshotCodec.string(), SnapshotCodec.constant(PRESENT));
+    }
+
+    /**
+     * 恢复快照，快照只是尽力而为的缓存，文件损坏或者格式不兼容时记录日志并以空状态启动，不影响应用启动
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            try {
+                load(snapshotPath);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("failed to restore limiter snapshot " + snapshotPath + ", starting with an empty limiter", e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (snapshotPath != null) {
+            save(snapshotPath);
+        }
+    }
+
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public void setSnapshotPath(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
     protected String getKey(String key) {
         return prefix + key;
     }
@@ -0,0 +1,118 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于内存的GCRA(generic cell rate algorithm)限流器
+ * <p>
+ * 每个key只保存理论到达时间TAT(微秒)，请求间隔为1/rate，TAT超出当前时间不超过burst个间隔时允许，
+ * 允许后TAT推进一个间隔，拒绝时需要等待的时间可以精确算出。TAT不晚于当前时间的key与不存在的key等价，
+ * 因此容器中的过期时间只需要不早于TAT，按照burst个间隔对齐延长，不需要额外保存过期时间
+ *
+ * @author zido
+ * @see LimiterAlgorithm#GCRA
+ */
+public class MemoryGcraLimiter implements RateLimiter {
+    private final ExpireMap<String, AtomicLong> arrivals;
+    private final SystemClock clock;
+    private String prefix = "";
+
+    public MemoryGcraLimiter() {
+        this(MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     */
+    public MemoryGcraLimiter(long maximumSize) {
+        this(maximumSize, SystemClock.getDefault());
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     * @param clock       时钟，测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}
+     */
+    public MemoryGcraLimiter(long maximumSize, SystemClock clock) {
+        ExpireMap.Builder<String, AtomicLong> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(maximumSize);
+        this.arrivals = builder.build();
+        this.clock = clock;
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.GCRA;
+    }
+
+    @Override
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        key = prefix + key;
+        double interval = TimeUnit.SECONDS.toMicros(1) / rate;
+        long tolerance = (long) Math.ceil(interval * burst);
+        long now = TimeUnit.MILLISECONDS.toMicros(clock.currentTimeMillis());
+        AtomicLong tat = arrivals.get(key);
+        if (tat == null) {
+            long first = now + (long) interval;
+            AtomicLong created = new AtomicLong(first);
+            long timeout = toTimeout(alignedExpiry(first, tolerance) - now);
+            if (arrivals.setNx(key, created, timeout)) {
+                return 0;
+            }
+            tat = arrivals.get(key);
+            if (tat == null) {
+                arrivals.set(key, created, timeout);
+                return 0;
+            }
+        }
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + (long) interval;
+            if (next - now > tolerance) {
+                return Math.max(1, (long) Math.ceil((next - tolerance - now) / 1000.0));
+            }
+            if (tat.compareAndSet(current, next)) {
+                long expiry = alignedExpiry(next, tolerance);
+                if (expiry != alignedExpiry(current, tolerance)) {
+                    extend(key, tat, next, toTimeout(expiry - now));
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 只延长过期时间：TAT只会增大，在锁中确认TAT仍然是本次推进的值才设置，
+     * 更晚推进的线程一定在之后设置更长的过期时间，并发时不会被较早的线程覆盖成更短的过期时间
+     */
+    private void extend(String key, AtomicLong tat, long next, long timeout) {
+        synchronized (tat) {
+            if (tat.get() == next && arrivals.get(key) == tat) {
+                arrivals.expire(key, timeout);
+            }
+        }
+    }
+
+    /**
+     * TAT之后第一个tolerance的整数倍，TAT在同一段内推进时不需要延长过期时间
+     */
+    private static long alignedExpiry(long tat, long tolerance) {
+        return (tat / tolerance + 1) * tolerance;
+    }
+
+    private static long toTimeout(long micros) {
+        return Math.max(1, TimeUnit.MICROSECONDS.toMillis(micros) + 1);
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+}
@@ -0,0 +1,117 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+/**
+ * 基于内存的滑动窗口计数器限流器
+ * <p>
+ * 每个key只保存当前与上一个窗口的计数，按照上一个窗口与滑动窗口的重叠比例加权估算窗口内的请求数，
+ * 避免固定窗口在窗口边界处允许两倍的突发请求
+ *
+ * @author zido
+ * @see LimiterAlgorithm#SLIDING_WINDOW_COUNTER
+ */
+public class MemorySlidingWindowCounterLimiter implements RateLimiter {
+    private final ExpireMap<String, Window> windows;
+    private final SystemClock clock;
+    private String prefix = "";
+
+    public MemorySlidingWindowCounterLimiter() {
+        this(MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     */
+    public MemorySlidingWindowCounterLimiter(long maximumSize) {
+        this(maximumSize, SystemClock.getDefault());
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     * @param clock       时钟，测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}
+     */
+    public MemorySlidingWindowCounterLimiter(long maximumSize, SystemClock clock) {
+        ExpireMap.Builder<String, Window> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(maximumSize);
+        this.windows = builder.build();
+        this.clock = clock;
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.SLIDING_WINDOW_COUNTER;
+    }
+
+    @Override
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        key = prefix + key;
+        long window = SlidingWindows.windowMillis(rate, burst);
+        long now = clock.currentTimeMillis();
+        long start = now - now % window;
+        //当前窗口的计数在下一个窗口结束前都需要保留
+        long expireAt = start + 2 * window;
+        Window w = windows.get(key);
+        if (w == null) {
+            Window created = new Window(start, expireAt);
+            if (windows.setNx(key, created, expireAt - now)) {
+                w = created;
+            } else {
+                w = windows.get(key);
+                if (w == null) {
+                    w = created;
+                    windows.set(key, created, expireAt - now);
+                }
+            }
+        }
+        boolean extend;
+        synchronized (w) {
+            if (w.start != start) {
+                w.previous = w.start == start - window ? w.current : 0;
+                w.current = 0;
+                w.start = start;
+            }
+            long wait = SlidingWindows.counterWait(w.previous, w.current, burst, window, now - start);
+            if (wait > 0) {
+                return wait;
+            }
+            w.current++;
+            extend = expireAt > w.expireAt;
+            if (extend) {
+                w.expireAt = expireAt;
+            }
+        }
+        if (extend) {
+            windows.expire(key, expireAt - now);
+        }
+        return 0;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    static final class Window {
+        /**
+         * 当前窗口的开始时间(毫秒)
+         */
+        long start;
+        long previous;
+        long current;
+        /**
+         * 容器中的过期时间(毫秒)，只用于减少延长有效期的次数
+         */
+        long expireAt;
+
+        Window(long start, long expireAt) {
+            this.start = start;
+            this.expireAt = expireAt;
+        }
+    }
+}
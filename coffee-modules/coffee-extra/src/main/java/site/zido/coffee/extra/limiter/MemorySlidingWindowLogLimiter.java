@@ -0,0 +1,126 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+import java.util.Arrays;
+
+/**
+ * 基于内存的滑动窗口日志限流器
+ * <p>
+ * 每个key使用一个长度为burst的环形数组保存最近的请求时间，当前位置的时间即为窗口内最早的请求，
+ * 它离开窗口之前拒绝新的请求，结果精确，不需要遍历或者清理过期的时间
+ *
+ * @author zido
+ * @see LimiterAlgorithm#SLIDING_WINDOW_LOG
+ */
+public class MemorySlidingWindowLogLimiter implements RateLimiter {
+    private final ExpireMap<String, Log> logs;
+    private final SystemClock clock;
+    private String prefix = "";
+
+    public MemorySlidingWindowLogLimiter() {
+        this(MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     */
+    public MemorySlidingWindowLogLimiter(long maximumSize) {
+        this(maximumSize, SystemClock.getDefault());
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     * @param clock       时钟，测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}
+     */
+    public MemorySlidingWindowLogLimiter(long maximumSize, SystemClock clock) {
+        ExpireMap.Builder<String, Log> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(maximumSize);
+        this.logs = builder.build();
+        this.clock = clock;
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.SLIDING_WINDOW_LOG;
+    }
+
+    @Override
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0 && burst <= Integer.MAX_VALUE, "burst must be between 1 and " + Integer.MAX_VALUE);
+        key = prefix + key;
+        long window = SlidingWindows.windowMillis(rate, burst);
+        long now = clock.currentTimeMillis();
+        Log log = logs.get(key);
+        if (log == null) {
+            Log created = new Log((int) burst, now + 2 * window);
+            if (logs.setNx(key, created, 2 * window)) {
+                log = created;
+            } else {
+                log = logs.get(key);
+                if (log == null) {
+                    log = created;
+                    logs.set(key, created, 2 * window);
+                }
+            }
+        }
+        long expireAt;
+        synchronized (log) {
+            if (log.times.length != burst) {
+                log.resize((int) burst);
+            }
+            long oldest = log.times[log.next];
+            if (oldest > now - window) {
+                return oldest + window - now;
+            }
+            log.times[log.next] = now;
+            log.next = (log.next + 1) % log.times.length;
+            //最后一个请求离开窗口之后日志可以丢弃，每个窗口最多延长一次
+            if (now + window <= log.expireAt) {
+                return 0;
+            }
+            expireAt = now + 2 * window;
+            log.expireAt = expireAt;
+        }
+        logs.expire(key, expireAt - now);
+        return 0;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    static final class Log {
+        /**
+         * 请求时间(毫秒)，按照时间顺序循环写入
+         */
+        long[] times;
+        /**
+         * 下一个写入位置，同时也是最早的请求
+         */
+        int next;
+        /**
+         * 容器中的过期时间(毫秒)，只用于减少延长有效期的次数
+         */
+        long expireAt;
+
+        Log(int size, long expireAt) {
+            resize(size);
+            this.expireAt = expireAt;
+        }
+
+        /**
+         * 同一个key的burst发生变化时丢弃已有的记录
+         */
+        void resize(int size) {
+            this.times = new long[size];
+            Arrays.fill(times, Long.MIN_VALUE);
+            this.next = 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于内存的令牌桶限流器
+ * <p>
+ * 每个key对应一个令牌桶，桶中只保存一个long：令牌数为0的时间点(微秒)，当前令牌数由时间差乘以速率得到，最多为burst。
+ * 获取令牌时通过CAS推进这个时间点，同一个key的并发请求之间没有锁。
+ * 桶在补满之后与新建的桶没有区别，因此容器中的过期时间只需要覆盖到补满为止
+ *
+ * @author zido
+ */
+public class MemoryTokenBucketLimiter implements RateLimiter {
+    private final ExpireMap<String, Bucket> buckets;
+    private final SystemClock clock;
+    private String prefix = "";
+
+    public MemoryTokenBucketLimiter() {
+        this(MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     */
+    public MemoryTokenBucketLimiter(long maximumSize) {
+        this(maximumSize, SystemClock.getDefault());
+    }
+
+    /**
+     * @param maximumSize 最多保存的key数量，小于0代表不限制
+     * @param clock       时钟，测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}
+     */
+    public MemoryTokenBucketLimiter(long maximumSize, SystemClock clock) {
+        ExpireMap.Builder<String, Bucket> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(maximumSize);
+        this.buckets = builder.build();
+        this.clock = clock;
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.TOKEN_BUCKET;
+    }
+
+    @Override
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        key = prefix + key;
+        double interval = TimeUnit.SECONDS.toMicros(1) / rate;
+        long fillTime = (long) Math.ceil(interval * burst);
+        long now = TimeUnit.MILLISECONDS.toMicros(clock.currentTimeMillis());
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            long timeout = toTimeout(fillTime);
+            Bucket created = new Bucket(now - fillTime, now + TimeUnit.MILLISECONDS.toMicros(timeout));
+            if (buckets.setNx(key, created, timeout)) {
+                bucket = created;
+            } else {
+                bucket = buckets.get(key);
+                if (bucket == null) {
+                    // 刚好过期被删除，当作满桶处理
+                    bucket = created;
+                    buckets.set(key, created, timeout);
+                }
+            }
+        }
+        AtomicLong emptyAt = bucket.emptyAt;
+        while (true) {
+            long current = emptyAt.get();
+            long start = Math.max(current, now - fillTime);
+            long elapsed = now - start;
+            if (elapsed < interval) {
+                return Math.max(1, (long) Math.ceil((interval - elapsed) / 1000));
+            }
+            long next = start + (long) interval;
+            if (emptyAt.compareAndSet(current, next)) {
+                extendIfNecessary(key, bucket, next + fillTime - now, fillTime);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 桶补满的时间超出容器中剩余的有效期时才延长，每个补满周期最多延长一次
+     */
+    private void extendIfNecessary(String key, Bucket bucket, long remaining, long fillTime) {
+        long now = TimeUnit.MILLISECONDS.toMicros(clock.currentTimeMillis());
+        if (now + remaining > bucket.expireAt) {
+            long timeout = toTimeout(remaining + fillTime);
+            bucket.expireAt = now + TimeUnit.MILLISECONDS.toMicros(timeout);
+            buckets.expire(key, timeout);
+        }
+    }
+
+    private static long toTimeout(long micros) {
+        return Math.max(1, TimeUnit.MICROSECONDS.toMillis(micros) + 1);
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    static final class Bucket {
+        /**
+         * 令牌数为0的时间点(微秒)
+         */
+        final AtomicLong emptyAt;
+        /**
+         * 容器中的过期时间(微秒)，只用于减少延长有效期的次数
+         */
+        volatile long expireAt;
+
+        Bucket(long emptyAt, long expireAt) {
+            this.emptyAt = new AtomicLong(emptyAt);
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+import site.zido.coffee.core.utils.maps.expire.ExpireMap;
+
+/**
+ * 带有本地拒绝缓存的频率限制器，通常包装{@link RedisFrequencyLimiter}
+ * <p>
+ * 远程限制器返回剩余时间后，在本地记录该key直到剩余时间结束，期间的请求直接在本地拒绝，不再访问redis；
+ * 获取成功的请求仍然全部交给远程限制器。本地的剩余时间扣除了调用远程限制器的耗时，不会晚于远程key过期。
+ * 本地最多保存{@value #DEFAULT_MAXIMUM_SIZE}个key(可以通过构造器修改)，超出后按照W-TinyLFU淘汰，被淘汰的key只是回到远程判断
+ *
+ * @author zido
+ */
+public class NearCacheFrequencyLimiter implements FrequencyLimiter {
+    public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+    private final FrequencyLimiter delegate;
+    private final ExpireMap<String, Boolean> denies;
+    private final SystemClock clock;
+
+    public NearCacheFrequencyLimiter(FrequencyLimiter delegate) {
+        this(delegate, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param delegate    远程限制器
+     * @param maximumSize 本地最多保存的key数量，小于0代表不限制
+     */
+    public NearCacheFrequencyLimiter(FrequencyLimiter delegate, long maximumSize) {
+        this(delegate, maximumSize, SystemClock.getDefault());
+    }
+
+    /**
+     * @param delegate    远程限制器
+     * @param maximumSize 本地最多保存的key数量，小于0代表不限制
+     * @param clock       时钟，测试时可以使用{@link site.zido.coffee.core.utils.VirtualClock}
+     */
+    public NearCacheFrequencyLimiter(FrequencyLimiter delegate, long maximumSize, SystemClock clock) {
+        Assert.notNull(delegate, "delegate can not be null");
+        ExpireMap.Builder<String, Boolean> builder = new ExpireMap.Builder<>();
+        builder.setClock(clock);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(maximumSize);
+        this.denies = builder.build();
+        this.delegate = delegate;
+        this.clock = clock;
+    }
+
+    @Override
+    public long tryGet(String key, long timeout) {
+        long remaining = denies.ttl(key);
+        if (remaining > 0) {
+            return remaining;
+        }
+        long start = clock.currentTimeMillis();
+        long expire = delegate.tryGet(key, timeout);
+        if (expire > 0) {
+            //远程的剩余时间在调用期间的某个时刻读取，从调用开始计算才不会晚于远程过期
+            long local = expire - (clock.currentTimeMillis() - start);
+            if (local > 0) {
+                denies.set(key, Boolean.TRUE, local);
+            }
+        }
+        return expire;
+    }
+
+    public FrequencyLimiter getDelegate() {
+        return delegate;
+    }
+}
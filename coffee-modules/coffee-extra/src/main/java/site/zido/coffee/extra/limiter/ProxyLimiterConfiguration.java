@@ -1,10 +1,13 @@
 package site.zido.coffee.extra.limiter;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Role;
 
+import java.util.stream.Collectors;
+
 /**
  * @author zido
  */
@@ -28,10 +31,11 @@ public class ProxyLimiterConfiguration {
 
     @Bean
     @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
-    public LimiterInterceptor interceptor(FrequencyLimiter limiter) {
+    public LimiterInterceptor interceptor(FrequencyLimiter limiter, ObjectProvider<RateLimiter> rateLimiters) {
         LimiterInterceptor interceptor = new LimiterInterceptor();
         interceptor.setLimiterOperationSource(limiterOperationSource());
         interceptor.setLimiter(limiter);
+        interceptor.setRateLimiters(rateLimiters.orderedStream().collect(Collectors.toList()));
         return interceptor;
     }
 }
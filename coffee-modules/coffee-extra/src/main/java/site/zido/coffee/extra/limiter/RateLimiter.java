@@ -0,0 +1,27 @@
+package site.zido.coffee.extra.limiter;
+
+/**
+ * 速率限制器，限制某个key每秒的请求数量，同时允许一定的突发请求
+ * <p>
+ * 与{@link FrequencyLimiter}的固定窗口不同，许可按照速率连续地恢复，不需要为每个key设置定时器
+ *
+ * @author zido
+ * @see Limiter#rate()
+ */
+public interface RateLimiter {
+
+    /**
+     * @return 使用的算法，{@link LimiterInterceptor}据此为{@link Limiter#algorithm()}选择限流器
+     */
+    LimiterAlgorithm getAlgorithm();
+
+    /**
+     * 尝试获取一个许可
+     *
+     * @param key   key
+     * @param rate  每秒恢复的许可数量，必须大于0
+     * @param burst 最多可以累积的许可数量，必须大于0
+     * @return 获取成功返回0，否则返回还需等待的毫秒数
+     */
+    long tryAcquire(String key, double rate, long burst);
+}
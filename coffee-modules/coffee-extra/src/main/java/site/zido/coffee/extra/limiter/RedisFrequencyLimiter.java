@@ -1,21 +1,36 @@
 package site.zido.coffee.extra.limiter;
 
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.Assert;
 import site.zido.coffee.core.utils.SystemClock;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 
 /**
  * 基于redis的频率限制器
  * <p>
  * 使用场景：手机号发送短信验证码一分钟不能超过一次(建议时间设置比实际情况略小
+ * <p>
+ * 通过一个lua脚本完成判断与设置(SET NX PX，失败时返回PTTL)，只需要一次网络往返，并且多个节点同时请求时只有一个能够获取执行权。
+ * 脚本通过EVALSHA执行，redis中不存在时自动回退到EVAL
+ * <p>
+ * 键的值是获取执行权时的秒级时间戳，与其他redis限流器的脚本参数一样按字符串原样写入，不经过template的value序列化。
+ * 这个值只是标记，限流只依赖键的PTTL，不会再被读取
  *
  * @author zido
  */
 public class RedisFrequencyLimiter implements FrequencyLimiter {
 
     private static final String PRE = "coffee:limiter:";
+    private static final RedisScript<Long> TRY_GET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2], 'NX') then return 0 end " +
+                    "return redis.call('pttl', KEYS[1])", Long.class);
+    private static final RedisSerializer<String> ARGS_SERIALIZER = new StringRedisSerializer(StandardCharsets.UTF_8);
     private final String prefix;
     private final RedisTemplate<String, Long> template;
 
@@ -29,28 +44,21 @@ public class RedisFrequencyLimiter implements FrequencyLimiter {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public long tryGet(String key, long timeout) {
-        Assert.isTrue(timeout > 1, "超时时间设定以秒为单位，并且需要大于一秒");
-        Assert.isTrue(timeout <= Integer.MAX_VALUE, "超时时间需要小于等于" + Integer.MAX_VALUE);
+        Assert.isTrue(timeout > 0, "超时时间以毫秒为单位，并且需要大于0");
         long now = SystemClock.now();
         now = now / 1000;
         String prefixedKey = prefix + key;
-        Long expire = template.getExpire(prefixedKey, TimeUnit.MILLISECONDS);
-        //redis集群可能无法准确过期，用ttl判断更准确
-        if (expire != null) {
-            //如果值永久有效将永远无法有效获取
-            if (expire == -1) {
-                throw new IllegalStateException(String.format("键[%s]永久有效，需要排查", prefixedKey));
-            }
-            if (expire > 0) {
-                return expire;
-            }
+        Long expire = template.execute(TRY_GET_SCRIPT, ARGS_SERIALIZER, (RedisSerializer<Long>) template.getValueSerializer(),
+                Collections.singletonList(prefixedKey), String.valueOf(now), String.valueOf(timeout));
+        if (expire == null) {
+            throw new IllegalStateException(String.format("键[%s]获取执行权失败，redis没有返回结果", prefixedKey));
         }
-        createTag(key, now, timeout);
-        return 0;
-    }
-
-    private void createTag(String key, long date, long timeout) {
-        template.opsForValue().set(prefix + key, date, timeout);
+        //如果值永久有效将永远无法有效获取
+        if (expire == -1) {
+            throw new IllegalStateException(String.format("键[%s]永久有效，需要排查", prefixedKey));
+        }
+        return expire;
     }
 }
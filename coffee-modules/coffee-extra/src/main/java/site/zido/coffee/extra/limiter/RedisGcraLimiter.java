@@ -0,0 +1,68 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * 基于redis的GCRA限流器
+ * <p>
+ * 每个key是一个字符串，保存理论到达时间TAT(微秒)，过期时间即为TAT，判断与推进由一个lua脚本完成。
+ * 时间的取法与{@link RedisTokenBucketLimiter}相同
+ *
+ * @author zido
+ * @see MemoryGcraLimiter
+ */
+public class RedisGcraLimiter implements RateLimiter {
+    private static final String PRE = "coffee:limiter:gcra:";
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local now " +
+                    "if redis.replicate_commands and redis.replicate_commands() then " +
+                    "local t = redis.call('time') now = tonumber(t[1]) * 1000000 + tonumber(t[2]) " +
+                    "else now = tonumber(ARGV[3]) end " +
+                    "local interval = 1000000 / tonumber(ARGV[1]) " +
+                    "local tolerance = math.ceil(interval * tonumber(ARGV[2])) " +
+                    "local tat = math.max(tonumber(redis.call('get', KEYS[1]) or 0), now) + interval " +
+                    "if tat - now > tolerance then return math.max(1, math.ceil((tat - tolerance - now) / 1000)) end " +
+                    "redis.call('set', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000)) " +
+                    "return 0", Long.class);
+    private static final RedisSerializer<String> ARGS_SERIALIZER = new StringRedisSerializer(StandardCharsets.UTF_8);
+    private final String prefix;
+    private final RedisTemplate<String, Long> template;
+
+    public RedisGcraLimiter(String prefix, RedisTemplate<String, Long> template) {
+        this.prefix = prefix;
+        this.template = template;
+    }
+
+    public RedisGcraLimiter(RedisTemplate<String, Long> template) {
+        this(PRE, template);
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.GCRA;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        String prefixedKey = prefix + key;
+        Long wait = template.execute(ACQUIRE_SCRIPT, ARGS_SERIALIZER, (RedisSerializer<Long>) template.getValueSerializer(),
+                Collections.singletonList(prefixedKey),
+                String.valueOf(rate), String.valueOf(burst), String.valueOf(SystemClock.now() * 1000));
+        if (wait == null) {
+            throw new IllegalStateException(String.format("键[%s]获取执行权失败，redis没有返回结果", prefixedKey));
+        }
+        return wait;
+    }
+}
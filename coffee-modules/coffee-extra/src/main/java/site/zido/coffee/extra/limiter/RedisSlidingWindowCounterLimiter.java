@@ -0,0 +1,77 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * 基于redis的滑动窗口计数器限流器
+ * <p>
+ * 每个key是一个hash，保存当前窗口的序号以及当前、上一个窗口的计数，判断与计数由一个lua脚本完成。
+ * 时间的取法与{@link RedisTokenBucketLimiter}相同
+ *
+ * @author zido
+ * @see LimiterAlgorithm#SLIDING_WINDOW_COUNTER
+ */
+public class RedisSlidingWindowCounterLimiter implements RateLimiter {
+    private static final String PRE = "coffee:limiter:counter:";
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local now " +
+                    "if redis.replicate_commands and redis.replicate_commands() then " +
+                    "local t = redis.call('time') now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+                    "else now = tonumber(ARGV[3]) end " +
+                    "local window = tonumber(ARGV[1]) " +
+                    "local limit = tonumber(ARGV[2]) " +
+                    "local index = math.floor(now / window) " +
+                    "local elapsed = now - index * window " +
+                    "local v = redis.call('hmget', KEYS[1], 'i', 'p', 'c') " +
+                    "local last = tonumber(v[1]) " +
+                    "local prev, curr = 0, 0 " +
+                    "if last == index then prev = tonumber(v[2]) curr = tonumber(v[3]) " +
+                    "elseif last == index - 1 then prev = tonumber(v[3]) end " +
+                    "if prev * (window - elapsed) / window + curr > limit - 1 then " +
+                    "if curr > limit - 1 then return window - elapsed + math.ceil(window - (limit - 1) * window / curr) end " +
+                    "return math.max(1, math.ceil(window - (limit - 1 - curr) * window / prev) - elapsed) end " +
+                    "redis.call('hmset', KEYS[1], 'i', string.format('%.0f', index), 'p', prev, 'c', curr + 1) " +
+                    "redis.call('pexpire', KEYS[1], 2 * window - elapsed) " +
+                    "return 0", Long.class);
+    private static final RedisSerializer<String> ARGS_SERIALIZER = new StringRedisSerializer(StandardCharsets.UTF_8);
+    private final String prefix;
+    private final RedisTemplate<String, Long> template;
+
+    public RedisSlidingWindowCounterLimiter(String prefix, RedisTemplate<String, Long> template) {
+        this.prefix = prefix;
+        this.template = template;
+    }
+
+    public RedisSlidingWindowCounterLimiter(RedisTemplate<String, Long> template) {
+        this(PRE, template);
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.SLIDING_WINDOW_COUNTER;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        String prefixedKey = prefix + key;
+        Long wait = template.execute(ACQUIRE_SCRIPT, ARGS_SERIALIZER, (RedisSerializer<Long>) template.getValueSerializer(),
+                Collections.singletonList(prefixedKey),
+                String.valueOf(SlidingWindows.windowMillis(rate, burst)), String.valueOf(burst), String.valueOf(SystemClock.now()));
+        if (wait == null) {
+            throw new IllegalStateException(String.format("键[%s]获取执行权失败，redis没有返回结果", prefixedKey));
+        }
+        return wait;
+    }
+}
@@ -0,0 +1,76 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于redis的滑动窗口日志限流器
+ * <p>
+ * 每个key是一个以请求时间为score的有序集合，脚本先删除离开窗口的请求，数量未满时写入本次请求，
+ * 已满时根据需要离开窗口的那个请求计算等待时间。时间的取法与{@link RedisTokenBucketLimiter}相同
+ *
+ * @author zido
+ * @see LimiterAlgorithm#SLIDING_WINDOW_LOG
+ */
+public class RedisSlidingWindowLogLimiter implements RateLimiter {
+    private static final String PRE = "coffee:limiter:log:";
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local now " +
+                    "if redis.replicate_commands and redis.replicate_commands() then " +
+                    "local t = redis.call('time') now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+                    "else now = tonumber(ARGV[3]) end " +
+                    "local window = tonumber(ARGV[1]) " +
+                    "local limit = tonumber(ARGV[2]) " +
+                    "redis.call('zremrangebyscore', KEYS[1], '-inf', string.format('%.0f', now - window)) " +
+                    "local count = redis.call('zcard', KEYS[1]) " +
+                    "if count >= limit then " +
+                    "local oldest = redis.call('zrange', KEYS[1], count - limit, count - limit, 'WITHSCORES') " +
+                    "return math.max(1, tonumber(oldest[2]) + window - now) end " +
+                    "redis.call('zadd', KEYS[1], string.format('%.0f', now), ARGV[4]) " +
+                    "redis.call('pexpire', KEYS[1], window) " +
+                    "return 0", Long.class);
+    private static final RedisSerializer<String> ARGS_SERIALIZER = new StringRedisSerializer(StandardCharsets.UTF_8);
+    private final String prefix;
+    private final RedisTemplate<String, Long> template;
+
+    public RedisSlidingWindowLogLimiter(String prefix, RedisTemplate<String, Long> template) {
+        this.prefix = prefix;
+        this.template = template;
+    }
+
+    public RedisSlidingWindowLogLimiter(RedisTemplate<String, Long> template) {
+        this(PRE, template);
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.SLIDING_WINDOW_LOG;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        String prefixedKey = prefix + key;
+        //同一毫秒内的多个请求需要不同的成员
+        String member = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        Long wait = template.execute(ACQUIRE_SCRIPT, ARGS_SERIALIZER, (RedisSerializer<Long>) template.getValueSerializer(),
+                Collections.singletonList(prefixedKey),
+                String.valueOf(SlidingWindows.windowMillis(rate, burst)), String.valueOf(burst),
+                String.valueOf(SystemClock.now()), member);
+        if (wait == null) {
+            throw new IllegalStateException(String.format("键[%s]获取执行权失败，redis没有返回结果", prefixedKey));
+        }
+        return wait;
+    }
+}
@@ -0,0 +1,69 @@
+package site.zido.coffee.extra.limiter;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import site.zido.coffee.core.utils.SystemClock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * 基于redis的令牌桶限流器
+ * <p>
+ * 与{@link MemoryTokenBucketLimiter}相同，每个key只保存令牌数为0的时间点(微秒)，由一个lua脚本完成补充与获取，只需要一次网络往返。
+ * 优先使用redis的TIME作为当前时间，避免各节点时钟不一致；不支持脚本效果复制(redis 3.2以下)时使用调用方传入的时间
+ *
+ * @author zido
+ */
+public class RedisTokenBucketLimiter implements RateLimiter {
+    private static final String PRE = "coffee:limiter:bucket:";
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local now " +
+                    "if redis.replicate_commands and redis.replicate_commands() then " +
+                    "local t = redis.call('time') now = tonumber(t[1]) * 1000000 + tonumber(t[2]) " +
+                    "else now = tonumber(ARGV[3]) end " +
+                    "local interval = 1000000 / tonumber(ARGV[1]) " +
+                    "local fill = interval * tonumber(ARGV[2]) " +
+                    "local start = math.max(tonumber(redis.call('get', KEYS[1]) or 0), now - fill) " +
+                    "local elapsed = now - start " +
+                    "if elapsed < interval then return math.max(1, math.ceil((interval - elapsed) / 1000)) end " +
+                    "local nextEmpty = start + interval " +
+                    "redis.call('set', KEYS[1], string.format('%.0f', nextEmpty), 'PX', math.ceil((nextEmpty + fill - now) / 1000) + 1) " +
+                    "return 0", Long.class);
+    private static final RedisSerializer<String> ARGS_SERIALIZER = new StringRedisSerializer(StandardCharsets.UTF_8);
+    private final String prefix;
+    private final RedisTemplate<String, Long> template;
+
+    public RedisTokenBucketLimiter(String prefix, RedisTemplate<String, Long> template) {
+        this.prefix = prefix;
+        this.template = template;
+    }
+
+    public RedisTokenBucketLimiter(RedisTemplate<String, Long> template) {
+        this(PRE, template);
+    }
+
+    @Override
+    public LimiterAlgorithm getAlgorithm() {
+        return LimiterAlgorithm.TOKEN_BUCKET;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long tryAcquire(String key, double rate, long burst) {
+        Assert.isTrue(rate > 0, "rate must be greater than 0");
+        Assert.isTrue(burst > 0, "burst must be greater than 0");
+        String prefixedKey = prefix + key;
+        Long wait = template.execute(ACQUIRE_SCRIPT, ARGS_SERIALIZER, (RedisSerializer<Long>) template.getValueSerializer(),
+                Collections.singletonList(prefixedKey),
+                String.valueOf(rate), String.valueOf(burst), String.valueOf(SystemClock.now() * 1000));
+        if (wait == null) {
+            throw new IllegalStateException(String.format("键[%s]获取令牌失败，redis没有返回结果", prefixedKey));
+        }
+        return wait;
+    }
+}
@@ -0,0 +1,41 @@
+package site.zido.coffee.extra.limiter;
+
+/**
+ * 滑动窗口限流器共用的计算
+ *
+ * @author zido
+ */
+final class SlidingWindows {
+    private SlidingWindows() {
+    }
+
+    /**
+     * @param rate  每秒请求数
+     * @param burst 窗口内最多的请求数
+     * @return 窗口大小(毫秒)
+     */
+    static long windowMillis(double rate, long burst) {
+        return Math.max(1, (long) Math.ceil(burst * 1000 / rate));
+    }
+
+    /**
+     * 滑动窗口计数器的判断，估算值为previous * (window - elapsed) / window + current
+     *
+     * @param previous 上一个窗口的计数
+     * @param current  当前窗口的计数
+     * @param limit    窗口内最多的请求数
+     * @param window   窗口大小(毫秒)
+     * @param elapsed  当前窗口已经经过的时间(毫秒)
+     * @return 允许时返回0，否则返回还需等待的毫秒数
+     */
+    static long counterWait(long previous, long current, long limit, long window, long elapsed) {
+        if (previous * (double) (window - elapsed) / window + current <= limit - 1) {
+            return 0;
+        }
+        if (current > limit - 1) {
+            //当前窗口已满，需要等到下一个窗口中当前计数的加权值降下来
+            return window - elapsed + (long) Math.ceil(window - (double) (limit - 1) * window / current);
+        }
+        return Math.max(1, (long) Math.ceil(window - (double) (limit - 1 - current) * window / previous) - elapsed);
+    }
+}
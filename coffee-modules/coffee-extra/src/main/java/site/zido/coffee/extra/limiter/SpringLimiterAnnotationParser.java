@@ -55,6 +55,9 @@ public class SpringLimiterAnnotationParser implements LimiterAnnotationParser {
         builder.setKey(limiter.key());
         builder.setTimeout(limiter.timeout());
         builder.setUnit(limiter.unit());
+        builder.setRate(limiter.rate());
+        builder.setBurst(limiter.burst());
+        builder.setAlgorithm(limiter.algorithm());
         return builder.build();
     }
 
@@ -0,0 +1,116 @@
+package id;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+import site.zido.coffee.core.utils.IdWorker;
+import site.zido.coffee.extra.id.RedisWorkerIdLease;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RedisWorkerIdLeaseTest {
+    private RedisConnection connection;
+    private RedisConnectionFactory factory;
+    /**
+     * SET NX的结果
+     */
+    private final AtomicBoolean slotFree = new AtomicBoolean(true);
+    /**
+     * 续约脚本的结果
+     */
+    private final AtomicLong renewResult = new AtomicLong(1);
+
+    @Before
+    public void setUp() {
+        connection = mock(RedisConnection.class);
+        factory = mock(RedisConnectionFactory.class);
+        when(factory.getConnection()).thenReturn(connection);
+        when(connection.set(any(byte[].class), any(byte[].class), any(Expiration.class),
+                eq(RedisStringCommands.SetOption.SET_IF_ABSENT)))
+                .thenAnswer(invocation -> slotFree.get());
+        //续约脚本：key、owner、租约时间
+        when(connection.eval(any(byte[].class), eq(ReturnType.INTEGER), anyInt(), any(byte[].class), any(byte[].class), any(byte[].class)))
+                .thenAnswer(invocation -> renewResult.get());
+    }
+
+    @Test
+    public void testAcquireAndRenew() throws InterruptedException {
+        RedisWorkerIdLease lease = new RedisWorkerIdLease(factory);
+        lease.setLeaseTime(90, TimeUnit.MILLISECONDS);
+        lease.afterPropertiesSet();
+        try {
+            Assert.assertTrue(lease.getSlot() >= 0 && lease.getSlot() < 1024);
+            IdWorker worker = lease.getIdWorker();
+            Assert.assertEquals(lease.getSlot(), worker.getDataCenterId() << 5 | worker.getWorkerId());
+            //超过租约时间之后仍然有效
+            Thread.sleep(300);
+            verify(connection, atLeastOnce()).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                    eq(("coffee:id-worker:" + lease.getSlot()).getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+                    eq("90".getBytes(StandardCharsets.UTF_8)));
+            Assert.assertTrue(lease.isValid());
+            worker.next();
+        } finally {
+            lease.destroy();
+        }
+        Assert.assertFalse(lease.isValid());
+        //释放脚本：key、owner
+        verify(connection).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                eq(("coffee:id-worker:" + lease.getSlot()).getBytes(StandardCharsets.UTF_8)), any(byte[].class));
+    }
+
+    @Test
+    public void testLostLeaseStopsIdGeneration() throws InterruptedException {
+        RedisWorkerIdLease lease = new RedisWorkerIdLease(factory);
+        //续约周期需要留出足够余量，避免构建机负载较高时续约线程被延迟导致误判
+        lease.setLeaseTime(600, TimeUnit.MILLISECONDS);
+        lease.afterPropertiesSet();
+        try {
+            IdWorker worker = lease.getIdWorker();
+            worker.next();
+            //租约过期并且槽位已被其他节点占用
+            renewResult.set(0);
+            slotFree.set(false);
+            Assert.assertTrue(awaitValid(lease, false));
+            try {
+                worker.next();
+                Assert.fail("ids must not be generated without a valid lease");
+            } catch (IllegalStateException expected) {
+                //ok
+            }
+            //槽位重新空闲后恢复
+            slotFree.set(true);
+            renewResult.set(1);
+            Assert.assertTrue(awaitValid(lease, true));
+            worker.next();
+        } finally {
+            lease.destroy();
+        }
+    }
+
+    private static boolean awaitValid(RedisWorkerIdLease lease, boolean valid) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lease.isValid() != valid) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
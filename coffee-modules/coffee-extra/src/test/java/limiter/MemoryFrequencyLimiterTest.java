@@ -1,35 +1,82 @@
 package limiter;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import site.zido.coffee.core.utils.VirtualClock;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
 import site.zido.coffee.extra.limiter.MemoryFrequencyLimiter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
 public class MemoryFrequencyLimiterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
-    public void testWhenTimeoutIsEqual() throws InterruptedException {
-        MemoryFrequencyLimiter limiter = new MemoryFrequencyLimiter();
-        long test = limiter.tryGet("test", 1);
+    public void testWhenTimeoutIsEqual() {
+        VirtualClock clock = new VirtualClock();
+        MemoryFrequencyLimiter limiter = new MemoryFrequencyLimiter(
+                MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE, StorageMode.LINKED, clock);
+        long test = limiter.tryGet("test", 1000);
         Assert.assertEquals(0L, test);
-        long last = limiter.tryGet("test", 1);
-        Assert.assertTrue(last > 0);
-        Thread.sleep(1000);
-        long result = limiter.tryGet("test", 1);
+        long last = limiter.tryGet("test", 1000);
+        Assert.assertEquals(1000, last);
+        clock.advance(1000, TimeUnit.MILLISECONDS);
+        long result = limiter.tryGet("test", 1000);
         Assert.assertEquals(0, result);
-        last = limiter.tryGet("test", 1);
-        Assert.assertTrue(last > 0);
+        last = limiter.tryGet("test", 1000);
+        Assert.assertEquals(1000, last);
     }
 
     @Test
-    public void testWhenTimeoutIsNotEqual() throws InterruptedException {
-        MemoryFrequencyLimiter limiter = new MemoryFrequencyLimiter();
-        long test = limiter.tryGet("test", 1);
+    public void testWhenTimeoutIsNotEqual() {
+        VirtualClock clock = new VirtualClock();
+        MemoryFrequencyLimiter limiter = new MemoryFrequencyLimiter(
+                MemoryFrequencyLimiter.DEFAULT_MAXIMUM_SIZE, StorageMode.LINKED, clock);
+        long test = limiter.tryGet("test", 1000);
         Assert.assertEquals(0L, test);
-        long last = limiter.tryGet("test", 2);
-        Assert.assertTrue(last > 0);
-        Thread.sleep(2000);
-        long result = limiter.tryGet("test", 2);
+        long last = limiter.tryGet("test", 2000);
+        Assert.assertEquals(1000, last);
+        clock.advance(2000, TimeUnit.MILLISECONDS);
+        long result = limiter.tryGet("test", 2000);
         Assert.assertEquals(0, result);
-        last = limiter.tryGet("test", 1);
-        Assert.assertTrue(last > 0);
+        last = limiter.tryGet("test", 1000);
+        Assert.assertEquals(2000, last);
+    }
+
+    @Test
+    public void testLimitedKeySurvivesUniqueKeyFlood() {
+        MemoryFrequencyLimiter limiter = new MemoryFrequencyLimiter(1000);
+        Assert.assertEquals(0, limiter.tryGet("victim", 60000));
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertEquals(0, limiter.tryGet("flood" + i, 60000));
+            if (i % 10 == 0) {
+                Assert.assertTrue("victim limit reset at " + i, limiter.tryGet("victim", 60000) > 0);
+            }
+        }
+        Assert.assertTrue(limiter.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testStartWithCorruptedSnapshot() throws IOException {
+        Path path = folder.newFile("limiter.snapshot").toPath();
+        Files.write(path, "not a snapshot".getBytes());
+        MemoryFrequencyLimiter limiter = new MemoryFrequencyLimiter();
+        limiter.setSnapshotPath(path);
+        limiter.afterPropertiesSet();
+        Assert.assertEquals(0, limiter.tryGet("test", 1000));
+        Assert.assertTrue(limiter.tryGet("test", 1000) > 0);
+
+        //关闭时覆盖损坏的快照，下次启动可以正常恢复
+        limiter.destroy();
+        MemoryFrequencyLimiter restored = new MemoryFrequencyLimiter();
+        restored.setSnapshotPath(path);
+        restored.afterPropertiesSet();
+        Assert.assertTrue(restored.tryGet("test", 1000) > 0);
     }
 }
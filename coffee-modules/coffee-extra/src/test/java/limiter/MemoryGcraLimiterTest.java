@@ -0,0 +1,31 @@
+package limiter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.VirtualClock;
+import site.zido.coffee.extra.limiter.MemoryGcraLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+public class MemoryGcraLimiterTest {
+    @Test
+    public void testRetryAfter() {
+        VirtualClock clock = new VirtualClock();
+        MemoryGcraLimiter limiter = new MemoryGcraLimiter(-1, clock);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, limiter.tryAcquire("test", 4, 3));
+        }
+        Assert.assertEquals(250, limiter.tryAcquire("test", 4, 3));
+        clock.advance(249, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, limiter.tryAcquire("test", 4, 3));
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, limiter.tryAcquire("test", 4, 3));
+        Assert.assertEquals(250, limiter.tryAcquire("test", 4, 3));
+        //空闲足够久之后恢复全部突发
+        clock.advance(1, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, limiter.tryAcquire("test", 4, 3));
+        }
+        Assert.assertTrue(limiter.tryAcquire("test", 4, 3) > 0);
+    }
+}
@@ -0,0 +1,47 @@
+package limiter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.VirtualClock;
+import site.zido.coffee.extra.limiter.MemorySlidingWindowCounterLimiter;
+import site.zido.coffee.extra.limiter.MemorySlidingWindowLogLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+public class MemorySlidingWindowLimiterTest {
+    @Test
+    public void testCounterSmoothsWindowBoundary() {
+        //从窗口开始计时，窗口为1秒，最多10个请求
+        VirtualClock clock = new VirtualClock(10000);
+        MemorySlidingWindowCounterLimiter limiter = new MemorySlidingWindowCounterLimiter(-1, clock);
+        clock.advance(900, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(0, limiter.tryAcquire("test", 10, 10));
+        }
+        Assert.assertEquals(200, limiter.tryAcquire("test", 10, 10));
+        //新窗口开始时上一个窗口的计数仍然有效，固定窗口在这里会再允许10个
+        clock.advance(100, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(100, limiter.tryAcquire("test", 10, 10));
+        clock.advance(100, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, limiter.tryAcquire("test", 10, 10));
+        Assert.assertTrue(limiter.tryAcquire("test", 10, 10) > 0);
+        clock.advance(2, TimeUnit.SECONDS);
+        Assert.assertEquals(0, limiter.tryAcquire("test", 10, 10));
+    }
+
+    @Test
+    public void testLog() {
+        VirtualClock clock = new VirtualClock(10000);
+        MemorySlidingWindowLogLimiter limiter = new MemorySlidingWindowLogLimiter(-1, clock);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, limiter.tryAcquire("test", 3, 3));
+            clock.advance(100, TimeUnit.MILLISECONDS);
+        }
+        //最早的请求在第1000毫秒离开窗口
+        Assert.assertEquals(700, limiter.tryAcquire("test", 3, 3));
+        clock.advance(700, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, limiter.tryAcquire("test", 3, 3));
+        Assert.assertEquals(100, limiter.tryAcquire("test", 3, 3));
+        Assert.assertEquals(0, limiter.tryAcquire("other", 3, 3));
+    }
+}
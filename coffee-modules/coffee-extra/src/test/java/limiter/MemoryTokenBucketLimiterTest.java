@@ -0,0 +1,32 @@
+package limiter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.VirtualClock;
+import site.zido.coffee.extra.limiter.MemoryTokenBucketLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+public class MemoryTokenBucketLimiterTest {
+    @Test
+    public void testBurstAndRefill() {
+        VirtualClock clock = new VirtualClock();
+        MemoryTokenBucketLimiter limiter = new MemoryTokenBucketLimiter(-1, clock);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0, limiter.tryAcquire("test", 10, 5));
+        }
+        Assert.assertEquals(100, limiter.tryAcquire("test", 10, 5));
+        clock.advance(40, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(60, limiter.tryAcquire("test", 10, 5));
+        clock.advance(60, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, limiter.tryAcquire("test", 10, 5));
+        Assert.assertTrue(limiter.tryAcquire("test", 10, 5) > 0);
+        //补满之后最多只能获取burst个
+        clock.advance(10, TimeUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(0, limiter.tryAcquire("test", 10, 5));
+        }
+        Assert.assertTrue(limiter.tryAcquire("test", 10, 5) > 0);
+        Assert.assertEquals(0, limiter.tryAcquire("other", 10, 5));
+    }
+}
@@ -0,0 +1,36 @@
+package limiter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import site.zido.coffee.core.utils.VirtualClock;
+import site.zido.coffee.core.utils.maps.expire.StorageMode;
+import site.zido.coffee.extra.limiter.FrequencyLimiter;
+import site.zido.coffee.extra.limiter.MemoryFrequencyLimiter;
+import site.zido.coffee.extra.limiter.NearCacheFrequencyLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NearCacheFrequencyLimiterTest {
+    @Test
+    public void testDeniesAreAnsweredLocally() {
+        VirtualClock clock = new VirtualClock();
+        MemoryFrequencyLimiter remote = new MemoryFrequencyLimiter(-1, StorageMode.LINKED, clock);
+        AtomicInteger calls = new AtomicInteger();
+        FrequencyLimiter counting = (key, timeout) -> {
+            calls.incrementAndGet();
+            return remote.tryGet(key, timeout);
+        };
+        NearCacheFrequencyLimiter limiter = new NearCacheFrequencyLimiter(counting, 100, clock);
+        Assert.assertEquals(0, limiter.tryGet("test", 1000));
+        Assert.assertEquals(1000, limiter.tryGet("test", 1000));
+        Assert.assertEquals(2, calls.get());
+        clock.advance(400, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(600, limiter.tryGet("test", 1000));
+        Assert.assertEquals(2, calls.get());
+        //本地与远程同时过期，获取成功的请求仍然访问远程
+        clock.advance(600, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, limiter.tryGet("test", 1000));
+        Assert.assertEquals(3, calls.get());
+    }
+}
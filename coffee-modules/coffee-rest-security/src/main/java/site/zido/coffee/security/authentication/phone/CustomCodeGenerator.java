@@ -2,15 +2,18 @@ package site.zido.coffee.security.authentication.phone;
 
 import io.jsonwebtoken.lang.Assert;
 import org.springframework.beans.factory.InitializingBean;
+import site.zido.coffee.core.utils.RandomUtils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 默认验证码生成器
  * <p>
  * 具有一定可自定义功能,例如可控的动态长度，字符/数组组合
+ * <p>
+ * 默认使用{@link ThreadLocalRandom}，线程之间没有竞争，需要不可预测的验证码时可以开启{@link #setSecure(boolean)}
  *
  * @author zido
  */
@@ -22,8 +25,8 @@ public class CustomCodeGenerator implements CodeGenerator, InitializingBean {
             'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z'};
     private int minLength = 6;
     private int maxLength = 6;
-    private final List<Character> arr = new ArrayList<>();
-    private final Random random = new Random();
+    private char[] arr = new char[0];
+    private boolean secure = false;
 
     public CustomCodeGenerator(Mode... modes) {
         if (modes == null || modes.length == 0) {
@@ -35,21 +38,21 @@ public class CustomCodeGenerator implements CodeGenerator, InitializingBean {
 
     @Override
     public String generateCode(String phone) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < maxLength; i++) {
-            int index = random.nextInt(arr.size());
-            sb.append(arr.get(index));
-            if (sb.length() >= minLength) {
-                if (random.nextBoolean()) {
-                    break;
-                }
+        Random random = secure ? RandomUtils.secureRandom() : ThreadLocalRandom.current();
+        char[] chars = this.arr;
+        // 达到最小长度后，每个字符之后都有一半的概率结束
+        int length = 0;
+        while (length < maxLength) {
+            length++;
+            if (length >= minLength && random.nextBoolean()) {
+                break;
             }
         }
-        return sb.toString();
+        return RandomUtils.str(random, length, chars);
     }
 
     public void setMode(Mode... modes) {
-        this.arr.clear();
+        this.arr = new char[0];
         addMode(modes);
     }
 
@@ -74,9 +77,9 @@ public class CustomCodeGenerator implements CodeGenerator, InitializingBean {
     }
 
     public void addArr(char[] chars) {
-        for (char c : chars) {
-            this.arr.add(c);
-        }
+        char[] merged = Arrays.copyOf(this.arr, this.arr.length + chars.length);
+        System.arraycopy(chars, 0, merged, this.arr.length, chars.length);
+        this.arr = merged;
     }
 
     public void setMinLength(int minLength) {
@@ -87,9 +90,16 @@ public class CustomCodeGenerator implements CodeGenerator, InitializingBean {
         this.maxLength = maxLength;
     }
 
+    /**
+     * @param secure 是否使用{@link java.security.SecureRandom}生成验证码
+     */
+    public void setSecure(boolean secure) {
+        this.secure = secure;
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
-        Assert.notEmpty(this.arr, "char array cannot be empty");
+        Assert.isTrue(this.arr.length > 0, "char array cannot be empty");
     }
 
     /**
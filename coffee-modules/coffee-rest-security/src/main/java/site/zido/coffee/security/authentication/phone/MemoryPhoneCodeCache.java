@@ -4,12 +4,20 @@ import site.zido.coffee.core.utils.maps.expire.ExpireMap;
 
 import java.util.concurrent.TimeUnit;
 
+/**
+ * 基于内存的手机号验证码缓存
+ * <p>
+ * 默认最多保存{@value #DEFAULT_MAXIMUM_SIZE}个手机号，超出后按照W-TinyLFU淘汰
+ *
+ * @author zido
+ */
 public class MemoryPhoneCodeCache implements PhoneCodeCache {
+    public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
     private final ExpireMap<String, String> expireMap;
     private long timeout = 60;
 
     public MemoryPhoneCodeCache() {
-        this(new ExpireMap<>(1, TimeUnit.MINUTES));
+        this(defaultExpireMap());
     }
 
     public MemoryPhoneCodeCache(ExpireMap<String, String> expireMap) {
@@ -26,6 +34,23 @@ public class MemoryPhoneCodeCache implements PhoneCodeCache {
         return expireMap.get(phone);
     }
 
+    private static ExpireMap<String, String> defaultExpireMap() {
+        ExpireMap.Builder<String, String> builder = new ExpireMap.Builder<>();
+        builder.setReleaseIntervalTime(1, TimeUnit.MINUTES);
+        builder.setBackgroundRelease(true);
+        builder.setMaximumSize(DEFAULT_MAXIMUM_SIZE);
+        return builder.build();
+    }
+
+    /**
+     * 因超出容量而被淘汰的验证码数量
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return expireMap.evictionCount();
+    }
+
     public void setTimeout(long timeout) {
         this.timeout = timeout;
     }
@@ -114,7 +114,7 @@ public class RestSecurityContextConfigurer<H extends HttpSecurityBuilder<H>>
                 return;
             }
             if (this.secret == null) {
-                this.secret = RandomUtils.ascii(12);
+                this.secret = RandomUtils.str(RandomUtils.secureRandom(), 12, 32, 126);
             }
             if (autoRefresh) {
                 JwtSecurityContextRepository repository = new JwtSecurityContextRepository(secret, expiration,
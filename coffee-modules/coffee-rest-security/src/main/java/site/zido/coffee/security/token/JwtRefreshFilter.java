@@ -15,12 +15,14 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import site.zido.coffee.core.utils.SystemClock;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Date;
 
 public class JwtRefreshFilter extends OncePerRequestFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtRefreshFilter.class);
@@ -38,6 +40,7 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
     private String jwtSecret;
     private String authHeaderName;
     private long refreshTokenExpirationInMs;
+    private SystemClock clock = SystemClock.getDefault();
 
     public JwtRefreshFilter() {
     }
@@ -73,6 +76,7 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
         Claims claims;
         try {
             claims = Jwts.parser()
+                    .setClock(() -> new Date(clock.currentTimeMillis()))
                     .setSigningKey(refreshSecret)
                     .parseClaimsJwt(refreshToken)
                     .getBody();
@@ -106,7 +110,8 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
                 jwtSecret,
                 authHeaderName,
                 refreshTokenExpirationInMs,
-                refreshSecret).writeToken(context);
+                refreshSecret,
+                clock).writeToken(context);
     }
 
     protected boolean requireRefresh(HttpServletRequest request) {
@@ -163,6 +168,15 @@ public class JwtRefreshFilter extends OncePerRequestFilter {
         this.refreshTokenExpirationInMs = refreshTokenExpirationInMs;
     }
 
+    /**
+     * 设置校验refresh token以及签发新token使用的时钟
+     *
+     * @param clock 时钟
+     */
+    public void setClock(SystemClock clock) {
+        this.clock = clock;
+    }
+
     @Override
     public void afterPropertiesSet() throws ServletException {
         super.afterPropertiesSet();
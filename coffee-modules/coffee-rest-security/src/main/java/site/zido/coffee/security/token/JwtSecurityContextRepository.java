@@ -17,11 +17,11 @@ import org.springframework.security.web.context.HttpRequestResponseHolder;
 import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.util.OnCommittedResponseWrapper;
 import org.springframework.util.StringUtils;
+import site.zido.coffee.core.utils.SystemClock;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.util.Base64;
-import java.util.Calendar;
 import java.util.Date;
 
 /**
@@ -44,6 +44,7 @@ public class JwtSecurityContextRepository implements SecurityContextRepository {
     private UserDetailsService userService;
 
     private GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
+    private SystemClock clock = SystemClock.getDefault();
 
     public JwtSecurityContextRepository() {
     }
@@ -71,7 +72,7 @@ public class JwtSecurityContextRepository implements SecurityContextRepository {
         if (token == null) {
             LOGGER.debug("No token currently exists");
             context = generateNewContext();
-            requestResponseHolder.setResponse(new JwtWriterResponse(response, jwtExpirationInMs, getIssue(), secret, authHeaderName));
+            requestResponseHolder.setResponse(new JwtWriterResponse(response, jwtExpirationInMs, getIssue(), secret, authHeaderName, clock));
         } else {
             try {
                 if (StringUtils.isEmpty(token)) {
@@ -80,6 +81,7 @@ public class JwtSecurityContextRepository implements SecurityContextRepository {
                 Claims claims;
                 try {
                     claims = Jwts.parser()
+                            .setClock(() -> new Date(clock.currentTimeMillis()))
                             .setSigningKey(secret)
                             .parseClaimsJws(token)
                             .getBody();
@@ -109,14 +111,11 @@ public class JwtSecurityContextRepository implements SecurityContextRepository {
                 if (!disableAutoRefresh) {
                     if (jwtRenewInMs >= 0) {
                         Date issued = claims.getIssuedAt();
-                        Calendar calendar = Calendar.getInstance();
-                        calendar.setTime(issued);
-                        calendar.add(Calendar.MILLISECOND, (int) (jwtRenewInMs));
-                        if (calendar.getTime().before(new Date())) {
-                            requestResponseHolder.setResponse(new JwtWriterResponse(response, jwtExpirationInMs, issue, secret, authHeaderName));
+                        if (issued.getTime() + jwtRenewInMs < clock.currentTimeMillis()) {
+                            requestResponseHolder.setResponse(new JwtWriterResponse(response, jwtExpirationInMs, issue, secret, authHeaderName, clock));
                         }
                     } else {
-                        requestResponseHolder.setResponse(new JwtWriterResponse(response, jwtExpirationInMs, issue, secret, authHeaderName));
+                        requestResponseHolder.setResponse(new JwtWriterResponse(response, jwtExpirationInMs, issue, secret, authHeaderName, clock));
                     }
                 }
             } catch (TokenInvalidException e) {
@@ -185,6 +184,15 @@ public class JwtSecurityContextRepository implements SecurityContextRepository {
         this.issue = issue;
     }
 
+    /**
+     * 设置判断过期、续期以及签发新token使用的时钟
+     *
+     * @param clock 时钟
+     */
+    public void setClock(SystemClock clock) {
+        this.clock = clock;
+    }
+
     public void enableAutoRefresh(boolean enable) {
         this.disableAutoRefresh = enable;
     }
@@ -7,6 +7,7 @@ import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import site.zido.coffee.core.utils.SystemClock;
 
 import javax.servlet.http.HttpServletResponse;
 import java.util.Date;
@@ -16,13 +17,23 @@ public class JwtWriterResponse extends OnCommittedResponseWrapper {
     private final String issue;
     private final String secret;
     private final String authHeaderName;
+    private final SystemClock clock;
 
     public JwtWriterResponse(HttpServletResponse response, long jwtExpirationInMs, String issue, String secret, String authHeaderName) {
+        this(response, jwtExpirationInMs, issue, secret, authHeaderName, SystemClock.getDefault());
+    }
+
+    /**
+     * @param clock 生成签发时间和过期时间使用的时钟，需要与校验token时使用的时钟一致
+     */
+    public JwtWriterResponse(HttpServletResponse response, long jwtExpirationInMs, String issue, String secret, String authHeaderName,
+                             SystemClock clock) {
         super(response);
         this.jwtExpirationInMs = jwtExpirationInMs;
         this.issue = issue;
         this.secret = secret;
         this.authHeaderName = authHeaderName;
+        this.clock = clock;
     }
 
     @Override
@@ -51,7 +62,7 @@ public class JwtWriterResponse extends OnCommittedResponseWrapper {
     }
 
     protected String generateNewToken(SecurityContext subject) {
-        Date now = new Date();
+        Date now = new Date(clock.currentTimeMillis());
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         JwtBuilder builder = Jwts.builder();
@@ -69,6 +80,10 @@ public class JwtWriterResponse extends OnCommittedResponseWrapper {
                 .compact();
     }
 
+    protected SystemClock getClock() {
+        return clock;
+    }
+
     protected HttpServletResponse getHttpResponse() {
         return (HttpServletResponse) getResponse();
     }
@@ -3,6 +3,7 @@ package site.zido.coffee.security.token;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.security.core.context.SecurityContext;
+import site.zido.coffee.core.utils.SystemClock;
 
 import javax.servlet.http.HttpServletResponse;
 import java.util.Date;
@@ -20,7 +21,19 @@ public class RefreshWriterResponse extends JwtWriterResponse {
                                  String authHeaderName,
                                  long refreshTokenExpirationInMs,
                                  String refreshSecret) {
-        super(response, jwtExpirationInMs, issue, jwtSecret, authHeaderName);
+        this(response, jwtExpirationInMs, issue, jwtSecret, authHeaderName, refreshTokenExpirationInMs, refreshSecret,
+                SystemClock.getDefault());
+    }
+
+    public RefreshWriterResponse(HttpServletResponse response,
+                                 long jwtExpirationInMs,
+                                 String issue,
+                                 String jwtSecret,
+                                 String authHeaderName,
+                                 long refreshTokenExpirationInMs,
+                                 String refreshSecret,
+                                 SystemClock clock) {
+        super(response, jwtExpirationInMs, issue, jwtSecret, authHeaderName, clock);
         this.refreshTokenExpirationInMs = refreshTokenExpirationInMs;
         this.refreshSecret = refreshSecret;
     }
@@ -31,13 +44,11 @@ public class RefreshWriterResponse extends JwtWriterResponse {
                                  String jwtSecret,
                                  String authHeaderName,
                                  long refreshTokenExpirationInMs) {
-        super(response, jwtExpirationInMs, issue, jwtSecret, authHeaderName);
-        this.refreshTokenExpirationInMs = refreshTokenExpirationInMs;
-        this.refreshSecret = jwtSecret;
+        this(response, jwtExpirationInMs, issue, jwtSecret, authHeaderName, refreshTokenExpirationInMs, jwtSecret);
     }
 
     protected String generateRefreshToken(SecurityContext subject) {
-        Date now = new Date();
+        Date now = new Date(getClock().currentTimeMillis());
         Date expiryDate = new Date(now.getTime() + refreshTokenExpirationInMs);
 
         return Jwts.builder()
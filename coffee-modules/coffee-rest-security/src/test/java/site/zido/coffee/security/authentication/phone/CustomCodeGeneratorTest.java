@@ -21,4 +21,15 @@ public class CustomCodeGeneratorTest {
         String code = generator.generateCode("");
         Assert.assertTrue(1 <= code.length() && code.length() <= 10);
     }
+
+    @Test
+    public void testSecureMixedGenerate() {
+        CustomCodeGenerator generator = new CustomCodeGenerator(CustomCodeGenerator.Mode.NUMBER,
+                CustomCodeGenerator.Mode.UPPER_CHAR);
+        generator.setSecure(true);
+        generator.setMaxLength(8);
+        generator.setMinLength(8);
+        String code = generator.generateCode("");
+        Assert.assertTrue(code.matches("[0-9A-Z]{8}"));
+    }
 }
@@ -0,0 +1,92 @@
+package site.zido.coffee.security.token;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import site.zido.coffee.core.utils.VirtualClock;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zido
+ */
+public class JwtSecurityContextRepositoryTest {
+    private static final String SECRET = "coffee-test-secret";
+    private static final long EXPIRATION_IN_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long RENEW_IN_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long START = 1600000000000L;
+
+    private VirtualClock clock;
+    private JwtSecurityContextRepository repository;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(START);
+        repository = new JwtSecurityContextRepository(SECRET, EXPIRATION_IN_MS, RENEW_IN_MS);
+        repository.setClock(clock);
+        repository.setUserService(username -> User.withUsername(username).password("x").roles("USER").build());
+    }
+
+    @Test
+    public void testRenewWithVirtualClock() {
+        String token = login("zido");
+
+        clock.advance(RENEW_IN_MS - 1000, TimeUnit.MILLISECONDS);
+        HttpRequestResponseHolder holder = holder(token);
+        repository.loadContext(holder);
+        Assert.assertFalse("token不应在续期时间之前续期", holder.getResponse() instanceof JwtWriterResponse);
+
+        clock.advance(2000, TimeUnit.MILLISECONDS);
+        holder = holder(token);
+        SecurityContext context = repository.loadContext(holder);
+        Assert.assertEquals("zido", context.getAuthentication().getName());
+        Assert.assertTrue(holder.getResponse() instanceof JwtWriterResponse);
+
+        repository.saveContext(context, holder.getRequest(), holder.getResponse());
+        String renewed = ((MockHttpServletResponse) ((JwtWriterResponse) holder.getResponse()).getResponse())
+                .getHeader(JwtSecurityContextRepository.DEFAULT_AUTH_HEADER_NAME);
+        Assert.assertNotNull(renewed);
+        Assert.assertNotEquals(token, renewed);
+        Claims claims = parse(renewed);
+        Assert.assertEquals(clock.currentTimeMillis() / 1000, claims.getIssuedAt().getTime() / 1000);
+        Assert.assertEquals((clock.currentTimeMillis() + EXPIRATION_IN_MS) / 1000, claims.getExpiration().getTime() / 1000);
+    }
+
+    private String login(String username) {
+        HttpRequestResponseHolder holder = holder(null);
+        SecurityContext context = repository.loadContext(holder);
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(username, null));
+        repository.saveContext(context, holder.getRequest(), holder.getResponse());
+        String token = ((MockHttpServletResponse) ((JwtWriterResponse) holder.getResponse()).getResponse())
+                .getHeader(JwtSecurityContextRepository.DEFAULT_AUTH_HEADER_NAME);
+        Assert.assertNotNull(token);
+        Assert.assertEquals(START, parse(token).getIssuedAt().getTime());
+        return token;
+    }
+
+    private HttpRequestResponseHolder holder(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader(JwtSecurityContextRepository.DEFAULT_AUTH_HEADER_NAME, token);
+        }
+        return new HttpRequestResponseHolder(request, new MockHttpServletResponse());
+    }
+
+    private Claims parse(String token) {
+        return Jwts.parser()
+                .setClock(() -> new Date(clock.currentTimeMillis()))
+                .setSigningKey(Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -3,6 +3,7 @@ package site.zido.demo.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import site.zido.coffee.core.utils.BeanUtils;
 import site.zido.demo.entity.Admin;
 import site.zido.demo.pojo.dto.UserDTO;
 import site.zido.demo.pojo.params.UserParams;
@@ -10,7 +11,6 @@ import site.zido.demo.repository.UserRepository;
 import site.zido.demo.service.IUserService;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
@@ -30,10 +30,6 @@ public class UserServiceImpl implements IUserService {
     }
 
     public List<UserDTO> getUsers(List<Integer> ids) {
-        return userRepository
-                .findAllByIdIn(ids, Sort.by(DESC, "createTime"))
-                .stream()
-                .map(user -> new UserDTO().convertFrom(user))
-                .collect(Collectors.toList());
+        return BeanUtils.transformFromInBatch(userRepository.findAllByIdIn(ids, Sort.by(DESC, "createTime")), UserDTO.class);
     }
 }